@@ -0,0 +1,88 @@
+package com.example.oauth2.benchmark;
+
+import com.example.oauth2.config.ResourceServerConfig;
+import com.example.oauth2.controller.ApiController;
+import com.example.oauth2.security.SigningKeyManager;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem das respostas do {@link ApiController} e serialização para JSON, como o
+ * {@code MappingJackson2HttpMessageConverter} faz. {@code publicInfo} e {@code systemInfo} já devolvem
+ * os bytes; {@code publicInfoNotModified} é a revalidação com {@code If-None-Match}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiResponseBenchmark {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ApiController apiController = new ApiController(objectMapper);
+    private Authentication authentication;
+    private String publicInfoETag;
+
+    @Setup
+    public void setUp() {
+        SigningKeyManager signingKeyManager = BenchmarkFixtures.signingKeyManager(SignatureAlgorithm.RS256);
+        Jwt jwt = new NimbusJwtEncoder(signingKeyManager).encode(BenchmarkFixtures.accessTokenParameters(signingKeyManager));
+        authentication = new ResourceServerConfig().jwtAuthenticationConverter(new SimpleMeterRegistry(), 1_000)
+                .convert(jwt);
+        publicInfoETag = apiController.getPublicInfo(null).getHeaders().getETag();
+    }
+
+    @Benchmark
+    public byte[] publicInfo() {
+        return apiController.getPublicInfo(null).getBody();
+    }
+
+    @Benchmark
+    public Object publicInfoNotModified() {
+        return apiController.getPublicInfo(publicInfoETag);
+    }
+
+    @Benchmark
+    public byte[] userProfile() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(apiController.getUserProfile(authentication).getBody());
+    }
+
+    @Benchmark
+    public byte[] userData() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(apiController.getUserData(authentication).getBody());
+    }
+
+    @Benchmark
+    public byte[] adminUsers() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(apiController.getAdminUsers(authentication).getBody());
+    }
+
+    @Benchmark
+    public byte[] systemInfo() {
+        return apiController.getSystemInfo(authentication, null).getBody();
+    }
+
+    @Benchmark
+    public byte[] protectedInfo() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(apiController.getProtectedInfo(authentication).getBody());
+    }
+}
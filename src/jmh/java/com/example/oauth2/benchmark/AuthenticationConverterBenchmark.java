@@ -0,0 +1,72 @@
+package com.example.oauth2.benchmark;
+
+import com.example.oauth2.config.ResourceServerConfig;
+import com.example.oauth2.security.ScopeAuthorizationManager;
+import com.example.oauth2.security.SigningKeyManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão de {@link Jwt} em {@code Authentication} feita a cada requisição em {@code /api/**}, e a
+ * verificação {@code hasAnyAuthority("read", "write")} das regras de URL: por bits de scope
+ * ({@link ScopeAuthorizationManager}) e pelo {@link AuthorityAuthorizationManager} do Spring Security.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationConverterBenchmark {
+
+    private final AuthorizationManager<Object> scopeAuthorizationManager =
+            ScopeAuthorizationManager.hasAnyScope("read", "write");
+    private final AuthorizationManager<Object> authorityAuthorizationManager =
+            AuthorityAuthorizationManager.hasAnyAuthority("read", "write");
+    private Converter<Jwt, AbstractAuthenticationToken> converter;
+    private Jwt jwt;
+    private Authentication authentication;
+
+    @Setup
+    public void setUp() {
+        SigningKeyManager signingKeyManager = BenchmarkFixtures.signingKeyManager(SignatureAlgorithm.RS256);
+        jwt = new NimbusJwtEncoder(signingKeyManager).encode(BenchmarkFixtures.accessTokenParameters(signingKeyManager));
+        converter = new ResourceServerConfig().jwtAuthenticationConverter(new SimpleMeterRegistry(), 1_000);
+        authentication = converter.convert(jwt);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken convert() {
+        return converter.convert(jwt);
+    }
+
+    @Benchmark
+    public AuthorizationDecision authorizeByScopeBits() {
+        return scopeAuthorizationManager.check(() -> authentication, null);
+    }
+
+    @Benchmark
+    public AuthorizationDecision authorizeByAuthorityName() {
+        return authorityAuthorizationManager.check(() -> authentication, null);
+    }
+}
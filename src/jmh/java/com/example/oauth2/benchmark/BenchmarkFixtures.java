@@ -0,0 +1,57 @@
+package com.example.oauth2.benchmark;
+
+import com.example.oauth2.config.AuthorizationServerConfig;
+import com.example.oauth2.security.SigningKeyManager;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Objetos compartilhados pelos benchmarks, montados pelos mesmos métodos {@code @Bean} da aplicação.
+ */
+final class BenchmarkFixtures {
+
+    static final AuthorizationServerConfig AUTHORIZATION_SERVER_CONFIG = new AuthorizationServerConfig();
+
+    private BenchmarkFixtures() {
+    }
+
+    static SigningKeyManager signingKeyManager(SignatureAlgorithm algorithm) {
+        try {
+            Path keyStore = Files.createTempDirectory("jmh-keys").resolve("signing-keys.json");
+            return AUTHORIZATION_SERVER_CONFIG.jwkSource(keyStore, algorithm, Duration.ofDays(30), Duration.ofHours(2));
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // Mesmas claims de um access token client_credentials do client-app
+    static JwtEncoderParameters accessTokenParameters(SigningKeyManager signingKeyManager) {
+        Instant issuedAt = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("http://localhost:8081")
+                .subject("client-app")
+                .audience(List.of("client-app"))
+                .issuedAt(issuedAt)
+                .notBefore(issuedAt)
+                .expiresAt(issuedAt.plus(1, ChronoUnit.HOURS))
+                .claim("scope", List.of("read", "write"))
+                .claim("client_id", "client-app")
+                .build();
+        JwsHeader header = JwsHeader.with(SignatureAlgorithm.from(signingKeyManager.getActiveKey().getAlgorithm().getName()))
+                .keyId(signingKeyManager.getActiveKey().getKeyID())
+                .build();
+        return JwtEncoderParameters.from(header, claims);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.oauth2.benchmark;
+
+import com.example.oauth2.security.JwtRevocationDenylist;
+import com.example.oauth2.security.SigningKeyManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emissão (jwkSource) e validação (jwtDecoder) de access tokens.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private SigningKeyManager signingKeyManager;
+    private JwtEncoder jwtEncoder;
+    private JwtEncoderParameters parameters;
+
+    @Setup
+    public void setUp() {
+        signingKeyManager = BenchmarkFixtures.signingKeyManager(SignatureAlgorithm.RS256);
+        jwtEncoder = new NimbusJwtEncoder(signingKeyManager);
+        parameters = BenchmarkFixtures.accessTokenParameters(signingKeyManager);
+    }
+
+    @Benchmark
+    public Jwt encode() {
+        return jwtEncoder.encode(parameters);
+    }
+
+    @Benchmark
+    public Jwt decode(DecoderState state) {
+        return state.jwtDecoder.decode(state.token);
+    }
+
+    @State(Scope.Benchmark)
+    public static class DecoderState {
+
+        @Param({"false", "true"})
+        public boolean decoderCache;
+
+        private JwtDecoder jwtDecoder;
+        private String token;
+
+        @Setup
+        public void setUp(JwtBenchmark benchmark) {
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            jwtDecoder = BenchmarkFixtures.AUTHORIZATION_SERVER_CONFIG.jwtDecoder(benchmark.signingKeyManager,
+                    new JwtRevocationDenylist(10_000, 0.001, meterRegistry), meterRegistry,
+                    decoderCache, 10_000, Duration.ofMinutes(5));
+            token = benchmark.jwtEncoder.encode(benchmark.parameters).getTokenValue();
+        }
+    }
+}
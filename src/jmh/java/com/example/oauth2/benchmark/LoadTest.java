@@ -0,0 +1,364 @@
+package com.example.oauth2.benchmark;
+
+import com.example.oauth2.OAuth2SecurityExampleApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Teste de carga em processo: sobe a aplicação numa porta aleatória e, para cada nível de
+ * concorrência, cada worker repete o ciclo {@code client_credentials} em {@code /oauth2/token}
+ * seguido de {@code /api/user/profile} e {@code /api/admin/users} com o token obtido.
+ * <p>
+ * Uso: {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.example.oauth2.benchmark.LoadTest
+ * -Dbenchmark.args="--concurrency=1,8,32 --duration=30 --warmup=10"}. Argumentos desconhecidos
+ * são repassados ao Spring (ex.: {@code --app.jwk.algorithm=ES256}).
+ * <p>
+ * Ao fim de cada nível também são reportados o pico de threads de plataforma, o heap após GC e o RSS
+ * do processo, para comparar o modo virtual threads (profile Maven {@code virtual-threads}, que passa
+ * {@code -Dspring.threads.virtual.enabled=true}) com o padrão.
+ * Os números são do processo inteiro: incluem os workers do próprio teste, iguais nos dois modos.
+ * <p>
+ * Com {@code --reactive} sobe também o resource server reativo (perfil Spring {@code reactive}) no mesmo
+ * processo e as chamadas {@code /api} vão para ele; o token continua vindo do authorization server.
+ * {@code --idle-connections=N} abre N conexões keep-alive com o servidor das rotas {@code /api} (uma requisição
+ * cada) e as mantém ociosas durante a medição, para comparar o custo de conexões paradas nos dois stacks.
+ */
+public final class LoadTest {
+
+    private static final String BASIC_AUTH = "Basic " + Base64.getEncoder()
+            .encodeToString("client-app:secret".getBytes(StandardCharsets.UTF_8));
+    private static final String TOKEN_FORM = "grant_type=client_credentials&scope=read%20write";
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final String apiBaseUrl;
+    private final Map<String, Operation> operations = new LinkedHashMap<>();
+
+    private LoadTest(String baseUrl, String apiBaseUrl) {
+        this.baseUrl = baseUrl;
+        this.apiBaseUrl = apiBaseUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.operations.put("POST /oauth2/token", new Operation());
+        this.operations.put("GET /api/user/profile", new Operation());
+        this.operations.put("GET /api/admin/users", new Operation());
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("app.jwk.key-store", Files.createTempDirectory("load-test").resolve("signing-keys.json").toString());
+        // Logs DEBUG no console dominariam a medição
+        properties.put("logging.level.org.springframework.security", "WARN");
+        properties.put("logging.level.org.springframework.security.oauth2", "WARN");
+        properties.put("logging.level.com.example.oauth2", "WARN");
+        properties.put("spring.jpa.show-sql", "false");
+        if (options.idleConnections() > 0) {
+            // O padrão do Tomcat fecha conexões ociosas após 20s; o Netty não tem limite
+            properties.put("server.tomcat.keep-alive-timeout", "-1");
+            properties.put("server.tomcat.max-keep-alive-requests", "-1");
+        }
+        for (String arg : options.springArgs()) {
+            properties.remove(arg.substring(2, arg.contains("=") ? arg.indexOf('=') : arg.length()));
+        }
+        List<String> springArgs = new ArrayList<>();
+        properties.forEach((name, value) -> springArgs.add("--" + name + "=" + value));
+        springArgs.addAll(Arrays.asList(options.springArgs()));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(OAuth2SecurityExampleApplication.class)
+                .run(springArgs.toArray(String[]::new));
+        ConfigurableApplicationContext reactiveContext = null;
+        List<Socket> idleConnections = new ArrayList<>();
+        try {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            String apiBaseUrl = baseUrl;
+            if (options.reactive()) {
+                reactiveContext = new SpringApplicationBuilder(OAuth2SecurityExampleApplication.class)
+                        .profiles("reactive")
+                        .run("--server.port=0",
+                                "--spring.security.oauth2.resourceserver.jwt.jwk-set-uri=" + baseUrl + "/oauth2/jwks",
+                                "--logging.level.org.springframework.security=WARN",
+                                "--logging.level.com.example.oauth2=WARN");
+                apiBaseUrl = "http://localhost:" + reactiveContext.getEnvironment().getProperty("local.server.port");
+            }
+            // Abaixo do Java 21 o Spring ignora spring.threads.virtual.enabled
+            boolean virtualThreads = Runtime.version().feature() >= 21
+                    && context.getEnvironment().getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+            System.out.printf("Aplicação em %s, %d CPUs, Java %d, virtual threads %s%n", baseUrl,
+                    Runtime.getRuntime().availableProcessors(), Runtime.version().feature(),
+                    virtualThreads ? "ligadas" : "desligadas");
+            System.out.printf("Rotas /api em %s (%s)%n", apiBaseUrl, options.reactive() ? "WebFlux" : "servlet");
+            if (options.idleConnections() > 0) {
+                openIdleConnections(URI.create(apiBaseUrl), options.idleConnections(), idleConnections);
+                System.out.printf("%d conexões keep-alive ociosas abertas%n", idleConnections.size());
+            }
+            for (int concurrency : options.concurrencyLevels()) {
+                new LoadTest(baseUrl, apiBaseUrl).run(concurrency, options.warmup(), options.duration());
+            }
+        }
+        finally {
+            for (Socket socket : idleConnections) {
+                socket.close();
+            }
+            if (reactiveContext != null) {
+                reactiveContext.close();
+            }
+            context.close();
+        }
+    }
+
+    // Cada conexão faz uma requisição (para passar do accept ao estado keep-alive) e fica parada
+    private static void openIdleConnections(URI server, int count, List<Socket> sockets) throws IOException {
+        byte[] request = ("GET /api/public/info HTTP/1.1\r\nHost: " + server.getAuthority() + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < count; i++) {
+            Socket socket = new Socket(server.getHost(), server.getPort());
+            sockets.add(socket);
+            socket.setSoTimeout(10_000);
+            socket.getOutputStream().write(request);
+            readResponse(socket.getInputStream());
+        }
+    }
+
+    private static void readResponse(InputStream in) throws IOException {
+        StringBuilder head = new StringBuilder();
+        while (head.indexOf("\r\n\r\n") < 0) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Connection closed before the response headers");
+            }
+            head.append((char) b);
+        }
+        String headers = head.toString().toLowerCase(Locale.ROOT);
+        int contentLength = headers.indexOf("content-length:");
+        if (contentLength >= 0) {
+            int end = headers.indexOf("\r\n", contentLength);
+            in.readNBytes(Integer.parseInt(headers.substring(contentLength + 15, end).trim()));
+            return;
+        }
+        if (headers.contains("transfer-encoding: chunked")) {
+            StringBuilder tail = new StringBuilder();
+            while (!tail.toString().endsWith("\r\n0\r\n\r\n") && !tail.toString().equals("0\r\n\r\n")) {
+                int b = in.read();
+                if (b < 0) {
+                    throw new IOException("Connection closed inside a chunked body");
+                }
+                tail.append((char) b);
+                if (tail.length() > 16) {
+                    tail.delete(0, tail.length() - 16);
+                }
+            }
+        }
+    }
+
+    private void run(int concurrency, Duration warmup, Duration duration) throws InterruptedException {
+        drive(concurrency, warmup);
+        operations.values().forEach(Operation::reset);
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+
+        long start = System.nanoTime();
+        drive(concurrency, duration);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        report(concurrency, elapsedSeconds);
+    }
+
+    private void drive(int concurrency, Duration duration) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                while (running.get()) {
+                    iteration();
+                }
+            });
+        }
+        Thread.sleep(duration.toMillis());
+        running.set(false);
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private void iteration() {
+        HttpRequest tokenRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/oauth2/token"))
+                .header("Authorization", BASIC_AUTH)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(TOKEN_FORM))
+                .build();
+        String body = send("POST /oauth2/token", tokenRequest);
+        if (body == null) {
+            return;
+        }
+        String accessToken;
+        try {
+            JsonNode token = objectMapper.readTree(body);
+            accessToken = token.path("access_token").asText(null);
+        }
+        catch (IOException ex) {
+            accessToken = null;
+        }
+        if (accessToken == null) {
+            return;
+        }
+        for (String endpoint : List.of("/api/user/profile", "/api/admin/users")) {
+            HttpRequest apiRequest = HttpRequest.newBuilder(URI.create(apiBaseUrl + endpoint))
+                    .header("Authorization", "Bearer " + accessToken)
+                    .GET()
+                    .build();
+            send("GET " + endpoint, apiRequest);
+        }
+    }
+
+    private String send(String name, HttpRequest request) {
+        Operation operation = operations.get(name);
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            operation.record(System.nanoTime() - start, response.statusCode() / 100 == 2);
+            return response.statusCode() / 100 == 2 ? response.body() : null;
+        }
+        catch (IOException ex) {
+            operation.record(System.nanoTime() - start, false);
+            return null;
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private void report(int concurrency, double elapsedSeconds) {
+        System.out.printf("%n=== concorrência %d (%.1fs) ===%n", concurrency, elapsedSeconds);
+        System.out.printf("%-24s %10s %8s %10s %9s %9s %9s %9s%n",
+                "operação", "total", "erros", "ops/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        operations.forEach((name, operation) -> {
+            Histogram histogram = operation.latencies.getIntervalHistogram();
+            System.out.printf("%-24s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    name,
+                    histogram.getTotalCount(),
+                    operation.errors.sum(),
+                    histogram.getTotalCount() / elapsedSeconds,
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+        });
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        memory.gc();
+        System.out.printf("threads de plataforma: pico %d, %d ao final | heap após GC %.1f MB | RSS %s%n",
+                threads.getPeakThreadCount(), threads.getThreadCount(),
+                memory.getHeapMemoryUsage().getUsed() / (1024.0 * 1024.0), residentSetSize());
+    }
+
+    // VmRSS do /proc (Linux): inclui as pilhas das threads, que não aparecem no heap
+    private static String residentSetSize() {
+        try {
+            return Files.readAllLines(Path.of("/proc/self/status")).stream()
+                    .filter(line -> line.startsWith("VmRSS:"))
+                    .map(line -> String.format("%.1f MB", Long.parseLong(line.replaceAll("\\D", "")) / 1024.0))
+                    .findFirst()
+                    .orElse("n/d");
+        }
+        catch (IOException | RuntimeException ex) {
+            return "n/d";
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Operation {
+
+        private final Recorder latencies = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+        private final LongAdder errors = new LongAdder();
+
+        void record(long nanos, boolean success) {
+            latencies.recordValue(Math.min(nanos, HIGHEST_TRACKABLE_NANOS));
+            if (!success) {
+                errors.increment();
+            }
+        }
+
+        void reset() {
+            latencies.reset();
+            errors.reset();
+        }
+    }
+
+    private record Options(int[] concurrencyLevels, Duration warmup, Duration duration, boolean reactive,
+                           int idleConnections, String[] springArgs) {
+
+        static Options parse(String[] args) {
+            int[] concurrency = {Runtime.getRuntime().availableProcessors() * 2};
+            Duration warmup = Duration.ofSeconds(10);
+            Duration duration = Duration.ofSeconds(30);
+            boolean reactive = false;
+            int idleConnections = 0;
+            List<String> springArgs = new ArrayList<>();
+            for (String arg : args) {
+                if (arg.startsWith("--concurrency=")) {
+                    concurrency = Arrays.stream(value(arg).split(",")).mapToInt(Integer::parseInt).toArray();
+                }
+                else if (arg.startsWith("--warmup=")) {
+                    warmup = Duration.ofSeconds(Long.parseLong(value(arg)));
+                }
+                else if (arg.startsWith("--duration=")) {
+                    duration = Duration.ofSeconds(Long.parseLong(value(arg)));
+                }
+                else if (arg.equals("--reactive")) {
+                    reactive = true;
+                }
+                else if (arg.startsWith("--idle-connections=")) {
+                    idleConnections = Integer.parseInt(value(arg));
+                }
+                else {
+                    springArgs.add(arg);
+                }
+            }
+            return new Options(concurrency, warmup, duration, reactive, idleConnections,
+                    springArgs.toArray(String[]::new));
+        }
+
+        private static String value(String arg) {
+            return arg.substring(arg.indexOf('=') + 1);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.oauth2.benchmark;
+
+import com.example.oauth2.security.OffloadingPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PasswordEncoder} configurado, usado no login e na autenticação de clientes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    private PasswordEncoder passwordEncoder;
+    private String encodedPassword;
+
+    @Setup
+    public void setUp() {
+        passwordEncoder = BenchmarkFixtures.AUTHORIZATION_SERVER_CONFIG.passwordEncoder(new SimpleMeterRegistry(), 0, 64);
+        encodedPassword = passwordEncoder.encode("secret");
+    }
+
+    @TearDown
+    public void tearDown() {
+        ((OffloadingPasswordEncoder) passwordEncoder).shutdown();
+    }
+
+    @Benchmark
+    public String encode() {
+        return passwordEncoder.encode("secret");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches("secret", encodedPassword);
+    }
+}
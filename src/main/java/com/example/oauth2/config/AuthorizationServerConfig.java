@@ -1,60 +1,163 @@
 package com.example.oauth2.config;
 
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.example.oauth2.controller.TokenIntrospectionController;
+import com.example.oauth2.http.PublishedDocumentsFilter;
+import com.example.oauth2.repository.AuthorizationConsentRepository;
+import com.example.oauth2.repository.OAuth2ClientRepository;
+import com.example.oauth2.repository.UserRepository;
+import com.example.oauth2.security.CachingClientSecretAuthenticationProvider;
+import com.example.oauth2.security.CachingJwtDecoder;
+import com.example.oauth2.security.JwtRevocationDenylist;
+import com.example.oauth2.security.OffloadingPasswordEncoder;
+import com.example.oauth2.security.RevocationCheckingJwtDecoder;
+import com.example.oauth2.security.SigningKeyManager;
+import com.example.oauth2.security.TimedJwtDecoder;
+import com.example.oauth2.security.TimedJwtEncoder;
+import com.example.oauth2.service.CachingTokenIntrospectionService;
+import com.example.oauth2.service.JdbcHashedOAuth2AuthorizationService;
+import com.example.oauth2.service.JpaOAuth2AuthorizationConsentService;
+import com.example.oauth2.service.JpaRegisteredClientRepository;
+import com.example.oauth2.service.JpaUserDetailsService;
+import com.example.oauth2.service.MeteredOAuth2AuthorizationConsentService;
+import com.example.oauth2.service.MeteredOAuth2TokenGenerator;
+import com.example.oauth2.service.RevocationPublishingAuthorizationService;
+import com.example.oauth2.service.ShardedOAuth2AuthorizationService;
+import com.example.oauth2.service.StatelessAuthorizationCodeService;
+import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.oauth2.core.AuthorizationGrantType;
-import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
-import org.springframework.security.oauth2.core.oidc.OidcScopes;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
-import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsentService;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.authentication.ClientSecretAuthenticationProvider;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2AuthorizationCodeRequestAuthenticationProvider;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2AuthorizationConsentAuthenticationProvider;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.config.annotation.web.configuration.OAuth2AuthorizationServerConfiguration;
 import org.springframework.security.oauth2.server.authorization.config.annotation.web.configurers.OAuth2AuthorizationServerConfigurer;
 import org.springframework.security.oauth2.server.authorization.settings.AuthorizationServerSettings;
-import org.springframework.security.oauth2.server.authorization.settings.ClientSettings;
-import org.springframework.security.oauth2.server.authorization.settings.TokenSettings;
-import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.security.oauth2.server.authorization.web.authentication.ClientSecretBasicAuthenticationConverter;
+import org.springframework.security.oauth2.server.authorization.token.DelegatingOAuth2TokenGenerator;
+import org.springframework.security.oauth2.server.authorization.token.JwtEncodingContext;
+import org.springframework.security.oauth2.server.authorization.token.JwtGenerator;
+import org.springframework.security.oauth2.server.authorization.token.OAuth2AccessTokenGenerator;
+import org.springframework.security.oauth2.server.authorization.token.OAuth2RefreshTokenGenerator;
+import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenCustomizer;
+import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenGenerator;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationEntryPointFailureHandler;
+import org.springframework.security.web.authentication.AuthenticationFilter;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.LoginUrlAuthenticationEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.security.web.header.HeaderWriterFilter;
 import org.springframework.security.web.util.matcher.MediaTypeRequestMatcher;
+import org.springframework.transaction.PlatformTransactionManager;
 
-import java.security.KeyPair;
-import java.security.KeyPairGenerator;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
+import javax.sql.DataSource;
+import java.nio.file.Path;
 import java.time.Duration;
-import java.util.UUID;
 
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @EnableWebSecurity
 public class AuthorizationServerConfig {
 
     @Bean
     @Order(1)
-    public SecurityFilterChain authorizationServerSecurityFilterChain(HttpSecurity http)
+    public SecurityFilterChain authorizationServerSecurityFilterChain(HttpSecurity http,
+            OAuth2AuthorizationService authorizationService, ApplicationEventPublisher eventPublisher,
+            RegisteredClientRepository registeredClientRepository, MeterRegistry meterRegistry,
+            OAuth2AuthorizationConsentService authorizationConsentService,
+            SigningKeyManager signingKeyManager, AuthorizationServerSettings authorizationServerSettings,
+            @Value("${app.jwk.documents.max-age:PT1H}") Duration documentsMaxAge,
+            @Value("${app.authorization-code.stateless.enabled:false}") boolean statelessAuthorizationCodes,
+            @Value("${app.authorization-code.stateless.key:}") String authorizationCodeKey,
+            @Value("${app.client-secret-cache.enabled:false}") boolean secretCacheEnabled,
+            @Value("${app.client-secret-cache.maximum-size:10000}") long secretCacheMaximumSize,
+            @Value("${app.client-secret-cache.ttl:PT1M}") Duration secretCacheTtl)
             throws Exception {
         OAuth2AuthorizationServerConfiguration.applyDefaultSecurity(http);
-        http.getConfigurer(OAuth2AuthorizationServerConfigurer.class)
-                .oidc(Customizer.withDefaults());
+        // Publica as revogações para o denylist consultado pelo JwtDecoder
+        OAuth2AuthorizationService endpointAuthorizationService =
+                new RevocationPublishingAuthorizationService(authorizationService, eventPublisher);
+        StatelessAuthorizationCodeService statelessCodeService = null;
+        if (statelessAuthorizationCodes) {
+            statelessCodeService = new StatelessAuthorizationCodeService(endpointAuthorizationService,
+                    registeredClientRepository, StatelessAuthorizationCodeService.key(authorizationCodeKey));
+            CaffeineCacheMetrics.monitor(meterRegistry, statelessCodeService.getRedeemedCodes(), "authorization.code.redeemed");
+            endpointAuthorizationService = statelessCodeService;
+        }
+        OAuth2AuthorizationServerConfigurer authorizationServerConfigurer =
+                http.getConfigurer(OAuth2AuthorizationServerConfigurer.class)
+                        .authorizationService(endpointAuthorizationService)
+                        // Decorado aqui, e não como bean, para o serviço JPA continuar recebendo os UserChangedEvent
+                        .authorizationConsentService(
+                                new MeteredOAuth2AuthorizationConsentService(authorizationConsentService, meterRegistry))
+                        .oidc(Customizer.withDefaults());
+        if (statelessCodeService != null) {
+            // Os codes de /oauth2/authorize (com ou sem consentimento) passam a carregar a autorização cifrada
+            OAuth2TokenGenerator<OAuth2AuthorizationCode> codeGenerator = statelessCodeService.authorizationCodeGenerator();
+            authorizationServerConfigurer.authorizationEndpoint(authorizationEndpoint -> authorizationEndpoint
+                    .authenticationProviders(providers -> providers.forEach(provider -> {
+                        if (provider instanceof OAuth2AuthorizationCodeRequestAuthenticationProvider requestProvider) {
+                            requestProvider.setAuthorizationCodeGenerator(codeGenerator);
+                        }
+                        else if (provider instanceof OAuth2AuthorizationConsentAuthenticationProvider consentProvider) {
+                            consentProvider.setAuthorizationCodeGenerator(codeGenerator);
+                        }
+                    })));
+        }
+        if (secretCacheEnabled) {
+            // Envolve o provider padrão de client_secret_basic/post, que continua fazendo a verificação completa nos misses
+            authorizationServerConfigurer.clientAuthentication(clientAuthentication -> clientAuthentication
+                    .authenticationProviders(providers -> providers.replaceAll(provider -> {
+                        if (!(provider instanceof ClientSecretAuthenticationProvider)) {
+                            return provider;
+                        }
+                        CachingClientSecretAuthenticationProvider cachingProvider = new CachingClientSecretAuthenticationProvider(
+                                provider, registeredClientRepository, secretCacheMaximumSize, secretCacheTtl);
+                        CaffeineCacheMetrics.monitor(meterRegistry, cachingProvider.getCache(), "client.secret");
+                        return cachingProvider;
+                    })));
+        }
         
         http
+                // JWKS e descoberta pré-serializados, antes dos filtros do authorization server que os refazem a cada requisição
+                .addFilterAfter(new PublishedDocumentsFilter(signingKeyManager, authorizationServerSettings, documentsMaxAge),
+                        HeaderWriterFilter.class)
                 .exceptionHandling((exceptions) -> exceptions
                         .defaultAuthenticationEntryPointFor(
                                 new LoginUrlAuthenticationEntryPoint("/login"),
@@ -67,6 +170,57 @@ public class AuthorizationServerConfig {
         return http.build();
     }
 
+    // Fora da cadeia do authorization server, que só atende os endpoints do protocolo; antes da padrão,
+    // que cobriria o caminho com login por formulário
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public SecurityFilterChain batchIntrospectionSecurityFilterChain(HttpSecurity http,
+            OAuth2AuthorizationService authorizationService, RegisteredClientRepository registeredClientRepository,
+            PasswordEncoder passwordEncoder, MeterRegistry meterRegistry,
+            @Value("${app.client-secret-cache.enabled:false}") boolean secretCacheEnabled,
+            @Value("${app.client-secret-cache.maximum-size:10000}") long secretCacheMaximumSize,
+            @Value("${app.client-secret-cache.ttl:PT1M}") Duration secretCacheTtl)
+            throws Exception {
+        // Mesma verificação de client_secret_basic do /oauth2/introspect
+        ClientSecretAuthenticationProvider clientSecretProvider =
+                new ClientSecretAuthenticationProvider(registeredClientRepository, authorizationService);
+        clientSecretProvider.setPasswordEncoder(passwordEncoder);
+        AuthenticationProvider clientAuthenticationProvider = clientSecretProvider;
+        if (secretCacheEnabled) {
+            CachingClientSecretAuthenticationProvider cachingProvider = new CachingClientSecretAuthenticationProvider(
+                    clientSecretProvider, registeredClientRepository, secretCacheMaximumSize, secretCacheTtl);
+            CaffeineCacheMetrics.monitor(meterRegistry, cachingProvider.getCache(), "client.secret.introspection");
+            clientAuthenticationProvider = cachingProvider;
+        }
+        HttpStatusEntryPoint unauthorized = new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED);
+        AuthenticationFilter clientAuthenticationFilter = new AuthenticationFilter(
+                new ProviderManager(clientAuthenticationProvider), new ClientSecretBasicAuthenticationConverter());
+        clientAuthenticationFilter.setSuccessHandler((request, response, authentication) -> { });
+        clientAuthenticationFilter.setFailureHandler(new AuthenticationEntryPointFailureHandler(unauthorized));
+
+        http
+                .securityMatcher(TokenIntrospectionController.BATCH_INTROSPECTION_ENDPOINT)
+                .addFilterAt(clientAuthenticationFilter, BasicAuthenticationFilter.class)
+                .authorizeHttpRequests(authorize -> authorize.anyRequest().authenticated())
+                .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(unauthorized))
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .csrf(csrf -> csrf.disable());
+
+        return http.build();
+    }
+
+    @Bean
+    public CachingTokenIntrospectionService tokenIntrospectionService(
+            OAuth2AuthorizationService authorizationService, RegisteredClientRepository registeredClientRepository,
+            JwtRevocationDenylist revocationDenylist, MeterRegistry meterRegistry,
+            @Value("${app.introspection.cache.maximum-size:10000}") long maximumSize,
+            @Value("${app.introspection.cache.ttl:PT30S}") Duration ttl) {
+        CachingTokenIntrospectionService introspectionService = new CachingTokenIntrospectionService(
+                registeredClientRepository, authorizationService, revocationDenylist, maximumSize, ttl);
+        CaffeineCacheMetrics.monitor(meterRegistry, introspectionService.getCache(), "token.introspection");
+        return introspectionService;
+    }
+
     @Bean
     @Order(2)
     public SecurityFilterChain defaultSecurityFilterChain(HttpSecurity http)
@@ -85,96 +239,116 @@ public class AuthorizationServerConfig {
     }
 
     @Bean
-    public UserDetailsService userDetailsService() {
-        UserDetails userDetails = User.builder()
-                .username("user")
-                .password("password")
-                .roles("USER")
-                .build();
-        
-        UserDetails adminDetails = User.builder()
-                .username("admin")
-                .password("admin")
-                .roles("USER", "ADMIN")
-                .build();
+    public UserDetailsService userDetailsService(UserRepository userRepository, MeterRegistry meterRegistry,
+            @Value("${app.user-cache.maximum-size:10000}") long maximumSize,
+            @Value("${app.user-cache.ttl:PT5M}") Duration ttl) {
+        JpaUserDetailsService userDetailsService = new JpaUserDetailsService(userRepository, maximumSize, ttl);
+        CaffeineCacheMetrics.monitor(meterRegistry, userDetailsService.getCache(), "user.details");
+        return userDetailsService;
+    }
 
-        return new InMemoryUserDetailsManager(userDetails, adminDetails);
-    }
-
-    @Bean
-    public RegisteredClientRepository registeredClientRepository() {
-        RegisteredClient oidcClient = RegisteredClient.withId("client-app-id")
-                .clientId("client-app")
-                .clientSecret("secret")
-                .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
-                .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_POST)
-                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
-                .authorizationGrantType(AuthorizationGrantType.REFRESH_TOKEN)
-                .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
-                .redirectUri("http://localhost:8081/login/oauth2/code/client-app")
-                .redirectUri("http://localhost:8081/authorized")
-                .postLogoutRedirectUri("http://localhost:8081/")
-                .scope(OidcScopes.OPENID)
-                .scope(OidcScopes.PROFILE)
-                .scope("read")
-                .scope("write")
-                .clientSettings(ClientSettings.builder().requireAuthorizationConsent(true).build())
-                .tokenSettings(TokenSettings.builder()
-                        .accessTokenTimeToLive(Duration.ofHours(1))
-                        .refreshTokenTimeToLive(Duration.ofDays(1))
-                        .reuseRefreshTokens(false)
-                        .build())
-                .build();
+    @Bean
+    public RegisteredClientRepository registeredClientRepository(OAuth2ClientRepository clientRepository,
+            @Value("${app.client-cache.maximum-size:10000}") long maximumSize,
+            @Value("${app.client-cache.ttl:PT5M}") Duration ttl) {
+        return new JpaRegisteredClientRepository(clientRepository, maximumSize, ttl);
+    }
 
-        RegisteredClient publicClient = RegisteredClient.withId("public-client-id")
-                .clientId("public-client")
-                .clientAuthenticationMethod(ClientAuthenticationMethod.NONE)
-                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
-                .authorizationGrantType(AuthorizationGrantType.REFRESH_TOKEN)
-                .redirectUri("http://localhost:8081/login/oauth2/code/public-client")
-                .scope(OidcScopes.OPENID)
-                .scope(OidcScopes.PROFILE)
-                .scope("read")
-                .clientSettings(ClientSettings.builder().requireAuthorizationConsent(true).build())
-                .tokenSettings(TokenSettings.builder()
-                        .accessTokenTimeToLive(Duration.ofMinutes(30))
-                        .refreshTokenTimeToLive(Duration.ofHours(12))
-                        .reuseRefreshTokens(false)
-                        .build())
-                .build();
+    @Bean
+    @ConditionalOnProperty(name = "app.authorization-store.type", havingValue = "memory", matchIfMissing = true)
+    public OAuth2AuthorizationService authorizationService(MeterRegistry meterRegistry,
+            @Value("${app.authorization-store.shards:64}") int shards,
+            @Value("${app.authorization-store.maximum-entries:100000}") int maximumEntries,
+            @Value("${app.authorization-store.pending-ttl:PT10M}") Duration pendingTtl) {
+        return new ShardedOAuth2AuthorizationService(shards, maximumEntries, pendingTtl, meterRegistry);
+    }
 
-        return new InMemoryRegisteredClientRepository(oidcClient, publicClient);
+    @Bean
+    @ConditionalOnProperty(name = "app.authorization-store.type", havingValue = "jdbc")
+    public OAuth2AuthorizationService jdbcAuthorizationService(DataSource dataSource, JdbcOperations jdbcOperations,
+            PlatformTransactionManager transactionManager, RegisteredClientRepository registeredClientRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.authorization-store.jdbc.initialize-schema:true}") boolean initializeSchema,
+            @Value("${app.authorization-store.pending-ttl:PT10M}") Duration pendingTtl,
+            @Value("${app.authorization-store.jdbc.batch-size:64}") int batchSize,
+            @Value("${app.authorization-store.jdbc.purge-chunk-size:1000}") int purgeChunkSize,
+            @Value("${app.authorization-store.jdbc.count-rows:false}") boolean countRows) {
+        if (initializeSchema) {
+            new ResourceDatabasePopulator(new ClassPathResource("db/oauth2-authorizations-schema.sql")).execute(dataSource);
+        }
+        return new JdbcHashedOAuth2AuthorizationService(jdbcOperations, transactionManager,
+                registeredClientRepository, pendingTtl, batchSize, purgeChunkSize, countRows, meterRegistry);
     }
 
     @Bean
-    public JWKSource<SecurityContext> jwkSource() {
-        KeyPair keyPair = generateRsaKey();
-        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
-        RSAPrivateKey privateKey = (RSAPrivateKey) keyPair.getPrivate();
-        RSAKey rsaKey = new RSAKey.Builder(publicKey)
-                .privateKey(privateKey)
-                .keyID(UUID.randomUUID().toString())
-                .build();
-        JWKSet jwkSet = new JWKSet(rsaKey);
-        return new ImmutableJWKSet<>(jwkSet);
+    public SigningKeyManager jwkSource(
+            @Value("${app.jwk.key-store:data/signing-keys.json}") Path keyStorePath,
+            @Value("${app.jwk.algorithm:RS256}") SignatureAlgorithm signatureAlgorithm,
+            @Value("${app.jwk.rotation-interval:P30D}") Duration rotationInterval,
+            @Value("${app.jwk.retired-key-retention:PT2H}") Duration retiredKeyRetention) {
+        return new SigningKeyManager(keyStorePath, signatureAlgorithm, rotationInterval, retiredKeyRetention);
     }
 
-    private static KeyPair generateRsaKey() {
-        KeyPair keyPair;
-        try {
-            KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
-            keyPairGenerator.initialize(2048);
-            keyPair = keyPairGenerator.generateKeyPair();
-        }
-        catch (Exception ex) {
-            throw new IllegalStateException(ex);
-        }
-        return keyPair;
+    @Bean
+    public OAuth2TokenCustomizer<JwtEncodingContext> jwtTokenCustomizer(SigningKeyManager signingKeyManager) {
+        // Assina sempre com a chave ativa; as demais chaves do JWKS servem apenas para verificação
+        return context -> {
+            JWK activeKey = signingKeyManager.getActiveKey();
+            context.getJwsHeader()
+                    .algorithm(SignatureAlgorithm.from(activeKey.getAlgorithm().getName()))
+                    .keyId(activeKey.getKeyID());
+        };
+    }
+
+    @Bean
+    public JwtEncoder jwtEncoder(JWKSource<SecurityContext> jwkSource, MeterRegistry meterRegistry) {
+        return new TimedJwtEncoder(new NimbusJwtEncoder(jwkSource), meterRegistry);
+    }
+
+    // Os mesmos geradores que o authorization server monta por padrão, com a contagem de tokens emitidos
+    @Bean
+    public OAuth2TokenGenerator<OAuth2Token> tokenGenerator(JwtEncoder jwtEncoder,
+            OAuth2TokenCustomizer<JwtEncodingContext> jwtTokenCustomizer, MeterRegistry meterRegistry,
+            @Value("${app.token-metrics.maximum-clients:100}") int maximumClientTags) {
+        JwtGenerator jwtGenerator = new JwtGenerator(jwtEncoder);
+        jwtGenerator.setJwtCustomizer(jwtTokenCustomizer);
+        return new MeteredOAuth2TokenGenerator(new DelegatingOAuth2TokenGenerator(
+                jwtGenerator, new OAuth2AccessTokenGenerator(), new OAuth2RefreshTokenGenerator()),
+                meterRegistry, maximumClientTags);
     }
 
     @Bean
-    public JwtDecoder jwtDecoder(JWKSource<SecurityContext> jwkSource) {
-        return OAuth2AuthorizationServerConfiguration.jwtDecoder(jwkSource);
+    public JpaOAuth2AuthorizationConsentService authorizationConsentService(
+            AuthorizationConsentRepository consentRepository, UserRepository userRepository,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${app.consent-cache.maximum-size:10000}") long maximumSize,
+            @Value("${app.consent-cache.ttl:PT5M}") Duration ttl) {
+        JpaOAuth2AuthorizationConsentService consentService = new JpaOAuth2AuthorizationConsentService(
+                consentRepository, userRepository, transactionManager, maximumSize, ttl);
+        CaffeineCacheMetrics.monitor(meterRegistry, consentService.getCache(), "authorization.consent");
+        return consentService;
+    }
+
+    @Bean
+    public JwtRevocationDenylist jwtRevocationDenylist(MeterRegistry meterRegistry,
+            @Value("${app.revocation.expected-revocations:10000}") int expectedRevocations,
+            @Value("${app.revocation.false-positive-probability:0.001}") double falsePositiveProbability) {
+        return new JwtRevocationDenylist(expectedRevocations, falsePositiveProbability, meterRegistry);
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(JWKSource<SecurityContext> jwkSource, JwtRevocationDenylist revocationDenylist,
+            MeterRegistry meterRegistry,
+            @Value("${app.jwt-cache.enabled:false}") boolean cacheEnabled,
+            @Value("${app.jwt-cache.maximum-size:10000}") long cacheMaximumSize,
+            @Value("${app.jwt-cache.maximum-ttl:PT5M}") Duration cacheMaximumTtl) {
+        JwtDecoder jwtDecoder = OAuth2AuthorizationServerConfiguration.jwtDecoder(jwkSource);
+        if (cacheEnabled) {
+            CachingJwtDecoder cachingJwtDecoder = new CachingJwtDecoder(jwtDecoder, cacheMaximumSize, cacheMaximumTtl);
+            CaffeineCacheMetrics.monitor(meterRegistry, cachingJwtDecoder.getCache(), "jwt.decoder");
+            jwtDecoder = cachingJwtDecoder;
+        }
+        return new TimedJwtDecoder(new RevocationCheckingJwtDecoder(jwtDecoder, revocationDenylist), meterRegistry);
     }
 
     @Bean
@@ -185,7 +359,14 @@ public class AuthorizationServerConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return org.springframework.security.crypto.password.NoOpPasswordEncoder.getInstance();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+            @Value("${app.password-hashing.threads:0}") int threads,
+            @Value("${app.password-hashing.queue-capacity:64}") int queueCapacity) {
+        DelegatingPasswordEncoder delegate =
+                (DelegatingPasswordEncoder) PasswordEncoderFactories.createDelegatingPasswordEncoder();
+        // Valores gravados pelo antigo NoOpPasswordEncoder não têm prefixo; são reescritos em bcrypt no próximo login
+        delegate.setDefaultPasswordEncoderForMatches(NoOpPasswordEncoder.getInstance());
+        return new OffloadingPasswordEncoder(delegate,
+                threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), queueCapacity, meterRegistry);
     }
 }
@@ -7,12 +7,22 @@ import com.example.oauth2.repository.RoleRepository;
 import com.example.oauth2.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.core.oidc.OidcScopes;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.settings.ClientSettings;
+import org.springframework.security.oauth2.server.authorization.settings.TokenSettings;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.Set;
 
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class DataInitializer implements CommandLineRunner {
 
     @Autowired
@@ -21,6 +31,9 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private RoleRepository roleRepository;
 
+    @Autowired
+    private RegisteredClientRepository registeredClientRepository;
+
 
 
     @Autowired
@@ -58,9 +71,53 @@ public class DataInitializer implements CommandLineRunner {
             System.out.println("   - admin/admin (ROLE_USER, ROLE_ADMIN)");
         }
 
-        // Clientes OAuth2 são configurados via InMemoryRegisteredClientRepository
-        // no AuthorizationServerConfig.java
-        System.out.println("✅ Clientes OAuth2 configurados via InMemoryRegisteredClientRepository:");
+        // Inicializar clientes OAuth2 (persistidos via JpaRegisteredClientRepository)
+        if (registeredClientRepository.findByClientId("client-app") == null) {
+            RegisteredClient oidcClient = RegisteredClient.withId("client-app-id")
+                    .clientId("client-app")
+                    .clientSecret(passwordEncoder.encode("secret"))
+                    .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+                    .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_POST)
+                    .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                    .authorizationGrantType(AuthorizationGrantType.REFRESH_TOKEN)
+                    .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                    .redirectUri("http://localhost:8081/login/oauth2/code/client-app")
+                    .redirectUri("http://localhost:8081/authorized")
+                    .postLogoutRedirectUri("http://localhost:8081/")
+                    .scope(OidcScopes.OPENID)
+                    .scope(OidcScopes.PROFILE)
+                    .scope("read")
+                    .scope("write")
+                    .clientSettings(ClientSettings.builder().requireAuthorizationConsent(true).build())
+                    .tokenSettings(TokenSettings.builder()
+                            .accessTokenTimeToLive(Duration.ofHours(1))
+                            .refreshTokenTimeToLive(Duration.ofDays(1))
+                            .reuseRefreshTokens(false)
+                            .build())
+                    .build();
+            registeredClientRepository.save(oidcClient);
+        }
+
+        if (registeredClientRepository.findByClientId("public-client") == null) {
+            RegisteredClient publicClient = RegisteredClient.withId("public-client-id")
+                    .clientId("public-client")
+                    .clientAuthenticationMethod(ClientAuthenticationMethod.NONE)
+                    .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                    .authorizationGrantType(AuthorizationGrantType.REFRESH_TOKEN)
+                    .redirectUri("http://localhost:8081/login/oauth2/code/public-client")
+                    .scope(OidcScopes.OPENID)
+                    .scope(OidcScopes.PROFILE)
+                    .scope("read")
+                    .clientSettings(ClientSettings.builder().requireAuthorizationConsent(true).build())
+                    .tokenSettings(TokenSettings.builder()
+                            .accessTokenTimeToLive(Duration.ofMinutes(30))
+                            .refreshTokenTimeToLive(Duration.ofHours(12))
+                            .reuseRefreshTokens(false)
+                            .build())
+                    .build();
+            registeredClientRepository.save(publicClient);
+        }
+        System.out.println("✅ Clientes OAuth2 inicializados:");
         System.out.println("   - client-app/secret (confidencial)");
         System.out.println("   - public-client (público)");
 
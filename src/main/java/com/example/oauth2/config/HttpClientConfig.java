@@ -0,0 +1,98 @@
+package com.example.oauth2.config;
+
+import com.example.oauth2.http.LoopbackClientHttpRequestFactory;
+import com.example.oauth2.service.ClientTokenManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import jakarta.servlet.Filter;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.security.web.context.AbstractSecurityWebApplicationInitializer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class HttpClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(MeterRegistry meterRegistry,
+            @Value("${app.http-client.max-connections:100}") int maxConnections,
+            @Value("${app.http-client.max-connections-per-route:20}") int maxConnectionsPerRoute,
+            @Value("${app.http-client.connect-timeout:PT2S}") Duration connectTimeout,
+            @Value("${app.http-client.response-timeout:PT10S}") Duration responseTimeout,
+            @Value("${app.http-client.pool-timeout:PT2S}") Duration poolTimeout,
+            @Value("${app.http-client.idle-timeout:PT30S}") Duration idleTimeout) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(responseTimeout))
+                        // Revalida conexões paradas há mais tempo que isso antes de reutilizar
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "default").bindTo(meterRegistry);
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        // Espera máxima por uma conexão livre no pool
+                        .setConnectionRequestTimeout(Timeout.of(poolTimeout))
+                        .setResponseTimeout(Timeout.of(responseTimeout))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleTimeout))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder restTemplateBuilder, CloseableHttpClient httpClient,
+            ApplicationContext applicationContext, ObjectProvider<DispatcherServlet> dispatcherServlet,
+            @Qualifier(AbstractSecurityWebApplicationInitializer.DEFAULT_FILTER_NAME) ObjectProvider<Filter> securityFilterChain,
+            @Value("${app.http-client.loopback.enabled:false}") boolean loopbackEnabled) {
+        ClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        if (loopbackEnabled && applicationContext instanceof WebServerApplicationContext webServerContext) {
+            // Chamadas para esta própria instância são despachadas em processo, sem passar pelo socket
+            requestFactory = new LoopbackClientHttpRequestFactory(requestFactory,
+                    () -> webServerContext.getWebServer().getPort(),
+                    securityFilterChain::getObject, dispatcherServlet::getObject);
+        }
+        ClientHttpRequestFactory factory = requestFactory;
+        return restTemplateBuilder
+                .requestFactory(() -> factory)
+                .build();
+    }
+
+    @Bean
+    public ClientTokenManager clientTokenManager(MeterRegistry meterRegistry,
+            // Renovações antecipadas rodam no executor da aplicação (virtual threads quando habilitadas)
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor executor,
+            @Value("${app.client-tokens.maximum-size:1000}") long maximumSize,
+            @Value("${app.client-tokens.expiry-skew:PT30S}") Duration expirySkew,
+            @Value("${app.client-tokens.refresh-ahead:PT2M}") Duration refreshAhead) {
+        return new ClientTokenManager(executor, maximumSize, expirySkew, refreshAhead, meterRegistry);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.oauth2.config;
+
+import com.example.oauth2.security.SecurityFilterChainMetricsPostProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class MetricsConfig {
+
+    // static: BeanPostProcessor criado antes dos demais beans desta configuração
+    @Bean
+    @ConditionalOnProperty(name = "app.security-metrics.filter-chains", havingValue = "true")
+    public static SecurityFilterChainMetricsPostProcessor securityFilterChainMetricsPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new SecurityFilterChainMetricsPostProcessor(meterRegistry);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.oauth2.config;
+
+import com.example.oauth2.security.ScopeAuthorizationManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+/**
+ * Resource server reativo (perfil {@code reactive}): as mesmas rotas {@code /api} do {@link ResourceServerConfig},
+ * servidas pelo WebFlux/Netty. Os tokens são emitidos pelo authorization server (perfil padrão) e validados
+ * com as chaves de {@code spring.security.oauth2.resourceserver.jwt.jwk-set-uri}.
+ * <p>
+ * Sem method security reativa (exige retornos {@code Mono}/{@code Flux}), os {@code @PreAuthorize} do
+ * {@code ApiController} são aplicados aqui pelas regras de path.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableWebFluxSecurity
+public class ReactiveResourceServerConfig {
+
+    // Com o Tomcat também no classpath (modo servlet) o Spring Boot o escolheria para o WebFlux
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public SecurityWebFilterChain resourceServerSecurityWebFilterChain(ServerHttpSecurity http,
+            ReactiveJwtAuthenticationConverterAdapter reactiveJwtAuthenticationConverter) {
+        http
+                .authorizeExchange(authorize -> authorize
+                        .pathMatchers("/api/public/**").permitAll()
+                        .pathMatchers("/api/user/**").access(ScopeAuthorizationManager.<AuthorizationContext>hasScope("read").reactive())
+                        .pathMatchers("/api/admin/**").access(ScopeAuthorizationManager.<AuthorizationContext>hasScope("write").reactive())
+                        .anyExchange().authenticated()
+                )
+                .oauth2ResourceServer(oauth2 -> oauth2
+                        .jwt(jwt -> jwt
+                                .jwtAuthenticationConverter(reactiveJwtAuthenticationConverter)
+                        )
+                )
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .csrf(ServerHttpSecurity.CsrfSpec::disable);
+
+        return http.build();
+    }
+
+    @Bean
+    public ReactiveJwtAuthenticationConverterAdapter reactiveJwtAuthenticationConverter(MeterRegistry meterRegistry,
+            @Value("${app.scope-cache.maximum-size:1000}") long maximumSize) {
+        return new ReactiveJwtAuthenticationConverterAdapter(
+                ResourceServerConfig.scopeJwtAuthenticationConverter(meterRegistry, maximumSize));
+    }
+}
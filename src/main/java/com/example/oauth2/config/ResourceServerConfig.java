@@ -1,35 +1,43 @@
 package com.example.oauth2.config;
 
+import com.example.oauth2.security.ScopeAuthorizationManager;
+import com.example.oauth2.security.ScopeJwtAuthenticationConverter;
+import com.example.oauth2.security.ScopeMethodSecurityExpressionHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
-import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
 
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
 public class ResourceServerConfig {
 
     @Bean
     @Order(3)
-    public SecurityFilterChain resourceServerSecurityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain resourceServerSecurityFilterChain(HttpSecurity http,
+            ScopeJwtAuthenticationConverter jwtAuthenticationConverter) throws Exception {
         http
                 .securityMatcher("/api/**")
                 .authorizeHttpRequests(authorize -> authorize
                         .requestMatchers("/api/public/**").permitAll()
-                        .requestMatchers("/api/user/**").hasAnyAuthority("read", "write")
-                        .requestMatchers("/api/admin/**").hasAuthority("write")
+                        .requestMatchers("/api/user/**").access(ScopeAuthorizationManager.hasAnyScope("read", "write"))
+                        .requestMatchers("/api/admin/**").access(ScopeAuthorizationManager.hasScope("write"))
                         .anyRequest().authenticated()
                 )
                 .oauth2ResourceServer(oauth2 -> oauth2
                         .jwt(jwt -> jwt
-                                .jwtAuthenticationConverter(jwtAuthenticationConverter())
+                                .jwtAuthenticationConverter(jwtAuthenticationConverter)
                         )
                 )
                 .sessionManagement(session -> session
@@ -42,13 +50,25 @@ public class ResourceServerConfig {
 
 
     @Bean
-    public JwtAuthenticationConverter jwtAuthenticationConverter() {
-        JwtGrantedAuthoritiesConverter authoritiesConverter = new JwtGrantedAuthoritiesConverter();
-        authoritiesConverter.setAuthorityPrefix("");
-        authoritiesConverter.setAuthoritiesClaimName("scope");
+    public ScopeJwtAuthenticationConverter jwtAuthenticationConverter(MeterRegistry meterRegistry,
+            @Value("${app.scope-cache.maximum-size:1000}") long maximumSize) {
+        return scopeJwtAuthenticationConverter(meterRegistry, maximumSize);
+    }
 
-        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
-        converter.setJwtGrantedAuthoritiesConverter(authoritiesConverter);
+    /**
+     * Cada scope do claim {@code scope} vira uma authority sem prefixo ({@code read}, {@code write}).
+     * Compartilhado com o {@link ReactiveResourceServerConfig}.
+     */
+    static ScopeJwtAuthenticationConverter scopeJwtAuthenticationConverter(MeterRegistry meterRegistry,
+            long maximumSize) {
+        ScopeJwtAuthenticationConverter converter = new ScopeJwtAuthenticationConverter("scope", maximumSize);
+        CaffeineCacheMetrics.monitor(meterRegistry, converter.getCache(), "scope.authorities");
         return converter;
     }
+
+    // hasScope/hasAnyScope em @PreAuthorize; static para não antecipar a criação desta configuração
+    @Bean
+    public static MethodSecurityExpressionHandler methodSecurityExpressionHandler() {
+        return new ScopeMethodSecurityExpressionHandler();
+    }
 }
@@ -0,0 +1,31 @@
+package com.example.oauth2.config;
+
+import com.example.oauth2.logging.RequestTracingFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.Set;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "app.tracing.enabled", havingValue = "true")
+public class TracingConfig {
+
+    // Antes de todos os filtros, inclusive o springSecurityFilterChain, para rastrear a requisição inteira
+    @Bean
+    public FilterRegistrationBean<RequestTracingFilter> requestTracingFilter(ObjectMapper objectMapper,
+            @Value("${app.tracing.header:X-Trace}") String header,
+            @Value("${app.tracing.client-ids:}") Set<String> clientIds,
+            @Value("${app.tracing.sample-rate:0}") double sampleRate) {
+        FilterRegistrationBean<RequestTracingFilter> registration = new FilterRegistrationBean<>(
+                new RequestTracingFilter(header, clientIds, sampleRate, objectMapper));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
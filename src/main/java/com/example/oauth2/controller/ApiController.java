@@ -1,138 +1,132 @@
 package com.example.oauth2.controller;
 
+import com.example.oauth2.dto.AdminUsersResponse;
+import com.example.oauth2.dto.ProtectedInfoResponse;
+import com.example.oauth2.dto.PublicInfoResponse;
+import com.example.oauth2.dto.SystemInfoResponse;
+import com.example.oauth2.dto.UserDataResponse;
+import com.example.oauth2.dto.UserProfileResponse;
+import com.example.oauth2.http.PrecomputedJsonResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 import java.util.Objects;
 
 @RestController
 @RequestMapping("/api")
 public class ApiController {
 
+    private static final UserDataResponse.UserData USER_DATA =
+            new UserDataResponse.UserData(1, "João Silva", "joao@example.com", "USER");
+
+    private static final List<AdminUsersResponse.UserSummary> USERS = List.of(
+            new AdminUsersResponse.UserSummary(1, "user", "USER"),
+            new AdminUsersResponse.UserSummary(2, "admin", "ADMIN")
+    );
+
+    // Conteúdo fixo: serializado uma vez, com ETag para If-None-Match
+    private final PrecomputedJsonResponse publicInfo;
+    private final PrecomputedJsonResponse systemInfo;
+
+    public ApiController(ObjectMapper objectMapper) {
+        this.publicInfo = new PrecomputedJsonResponse(objectMapper,
+                new PublicInfoResponse("Este é um endpoint público - não requer autenticação", "public"),
+                CacheControl.noCache());
+        this.systemInfo = new PrecomputedJsonResponse(objectMapper,
+                new SystemInfoResponse("Informações do sistema - requer scope 'write' (admin)", "admin",
+                        new SystemInfoResponse.SystemInfo("1.0.0", "development", "H2", true)),
+                CacheControl.noCache().cachePrivate());
+    }
+
     @GetMapping("/public/info")
-    public ResponseEntity<Map<String, Object>> getPublicInfo() {
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "Este é um endpoint público - não requer autenticação");
-        response.put("timestamp", LocalDateTime.now());
-        response.put("access", "public");
-        return ResponseEntity.ok(response);
+    public ResponseEntity<byte[]> getPublicInfo(
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return publicInfo.render(ifNoneMatch);
     }
 
     @GetMapping("/user/profile")
-    @PreAuthorize("hasAuthority('read')")
-    public ResponseEntity<Map<String, Object>> getUserProfile(Authentication authentication) {
-        System.out.println("profile Entrou aqui!!!!!!");
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "Perfil do usuário - requer scope 'read'");
-        response.put("timestamp", LocalDateTime.now());
-        response.put("access", "user");
-        
+    @PreAuthorize("hasScope('read')")
+    public ResponseEntity<UserProfileResponse> getUserProfile(Authentication authentication) {
+        String user = null;
+        List<String> scopes = null;
+        String clientId = null;
         if (authentication.getPrincipal() instanceof Jwt jwt) {
-            response.put("user", jwt.getClaimAsString("sub"));
-            response.put("scopes", jwt.getClaimAsStringList("scope"));
-            response.put("client_id", jwt.getClaimAsString("client_id"));
+            user = jwt.getClaimAsString("sub");
+            scopes = jwt.getClaimAsStringList("scope");
+            clientId = jwt.getClaimAsString("client_id");
         }
-        
-        return ResponseEntity.ok(response);
+
+        return ResponseEntity.ok(new UserProfileResponse("Perfil do usuário - requer scope 'read'", "user",
+                user, scopes, clientId, LocalDateTime.now()));
     }
 
     @GetMapping("/user/data")
-    @PreAuthorize("hasAuthority('read')")
-    public ResponseEntity<Map<String, Object>> getUserData(Authentication authentication) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "Dados do usuário - requer scope 'read'");
-        response.put("timestamp", LocalDateTime.now());
-        response.put("access", "user");
-        
-        Map<String, Object> userData = new HashMap<>();
-        userData.put("id", 1);
-        userData.put("name", "João Silva");
-        userData.put("email", "joao@example.com");
-        userData.put("role", "USER");
-        
-        response.put("data", userData);
-        
+    @PreAuthorize("hasScope('read')")
+    public ResponseEntity<UserDataResponse> getUserData(Authentication authentication) {
+        UserDataResponse.TokenInfo tokenInfo = null;
         if (authentication.getPrincipal() instanceof Jwt jwt) {
-            response.put("token_info", Map.of(
-                "subject", jwt.getClaimAsString("sub"),
-                "issued_at", Objects.requireNonNull(jwt.getIssuedAt()),
-                "expires_at", Objects.requireNonNull(jwt.getExpiresAt())
-            ));
+            tokenInfo = new UserDataResponse.TokenInfo(
+                    jwt.getClaimAsString("sub"),
+                    Objects.requireNonNull(jwt.getIssuedAt()),
+                    Objects.requireNonNull(jwt.getExpiresAt())
+            );
         }
-        
-        return ResponseEntity.ok(response);
+
+        return ResponseEntity.ok(new UserDataResponse("Dados do usuário - requer scope 'read'", "user",
+                USER_DATA, tokenInfo, LocalDateTime.now()));
     }
 
     @GetMapping("/admin/users")
-    @PreAuthorize("hasAuthority('write')")
-    public ResponseEntity<Map<String, Object>> getAdminUsers(Authentication authentication) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "Lista de usuários - requer scope 'write' (admin)");
-        response.put("timestamp", LocalDateTime.now());
-        response.put("access", "admin");
-        
-        response.put("users", java.util.List.of(
-            Map.of("id", 1, "username", "user", "role", "USER"),
-            Map.of("id", 2, "username", "admin", "role", "ADMIN")
-        ));
-        
+    @PreAuthorize("hasScope('write')")
+    public ResponseEntity<AdminUsersResponse> getAdminUsers(Authentication authentication) {
+        AdminUsersResponse.AdminInfo adminInfo = null;
         if (authentication.getPrincipal() instanceof Jwt jwt) {
-            response.put("admin_info", Map.of(
-                "admin_user", jwt.getClaimAsString("sub"),
-                "scopes", jwt.getClaimAsStringList("scope"),
-                "client_id", jwt.getClaimAsString("client_id")
-            ));
+            // client_id pode não existir no token (ex.: client_credentials): sai como null
+            adminInfo = new AdminUsersResponse.AdminInfo(
+                    jwt.getClaimAsString("sub"),
+                    jwt.getClaimAsStringList("scope"),
+                    jwt.getClaimAsString("client_id")
+            );
         }
-        
-        return ResponseEntity.ok(response);
+
+        return ResponseEntity.ok(new AdminUsersResponse("Lista de usuários - requer scope 'write' (admin)", "admin",
+                USERS, adminInfo, LocalDateTime.now()));
     }
 
     @GetMapping("/admin/system")
-    @PreAuthorize("hasAuthority('write')")
-    public ResponseEntity<Map<String, Object>> getSystemInfo(Authentication authentication) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "Informações do sistema - requer scope 'write' (admin)");
-        response.put("timestamp", LocalDateTime.now());
-        response.put("access", "admin");
-        
-        Map<String, Object> systemInfo = new HashMap<>();
-        systemInfo.put("version", "1.0.0");
-        systemInfo.put("environment", "development");
-        systemInfo.put("database", "H2");
-        systemInfo.put("oauth2_enabled", true);
-        
-        response.put("system", systemInfo);
-        
-        return ResponseEntity.ok(response);
+    @PreAuthorize("hasScope('write')")
+    public ResponseEntity<byte[]> getSystemInfo(Authentication authentication,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return systemInfo.render(ifNoneMatch);
     }
 
     @GetMapping("/protected/info")
-    public ResponseEntity<Map<String, Object>> getProtectedInfo(Authentication authentication) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "Endpoint protegido - requer token válido");
-        response.put("timestamp", LocalDateTime.now());
-        response.put("access", "protected");
-        
+    public ResponseEntity<ProtectedInfoResponse> getProtectedInfo(Authentication authentication) {
+        ProtectedInfoResponse.TokenDetails tokenDetails = null;
         if (authentication != null && authentication.getPrincipal() instanceof Jwt jwt) {
-            response.put("token_details", Map.of(
-                "subject", jwt.getClaimAsString("sub"),
-                "audience", jwt.getAudience(),
-                "issuer", jwt.getIssuer(),
-                "scopes", jwt.getClaimAsStringList("scope"),
-                "client_id", jwt.getClaimAsString("client_id"),
-                "issued_at", jwt.getIssuedAt(),
-                "expires_at", jwt.getExpiresAt()
-            ));
+            tokenDetails = new ProtectedInfoResponse.TokenDetails(
+                    jwt.getClaimAsString("sub"),
+                    jwt.getAudience(),
+                    jwt.getIssuer(),
+                    jwt.getClaimAsStringList("scope"),
+                    jwt.getClaimAsString("client_id"),
+                    jwt.getIssuedAt(),
+                    jwt.getExpiresAt()
+            );
         }
-        
-        return ResponseEntity.ok(response);
+
+        return ResponseEntity.ok(new ProtectedInfoResponse("Endpoint protegido - requer token válido", "protected",
+                tokenDetails, LocalDateTime.now()));
     }
 }
@@ -1,6 +1,9 @@
 package com.example.oauth2.controller;
 
+import com.example.oauth2.service.ClientTokenManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.*;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
@@ -12,11 +15,21 @@ import java.util.HashMap;
 import java.util.Map;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/oauth2")
 public class OAuth2ClientController {
 
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final String authServerUrl = "http://localhost:8081";
+    private final RestTemplate restTemplate;
+    private final ClientTokenManager tokenManager;
+    private final String authServerUrl;
+
+    // RestTemplate compartilhado (HttpClientConfig): pool de conexões e chamadas locais em processo
+    public OAuth2ClientController(RestTemplate restTemplate, ClientTokenManager tokenManager,
+            @Value("${app.http-client.auth-server-url:http://localhost:8081}") String authServerUrl) {
+        this.restTemplate = restTemplate;
+        this.tokenManager = tokenManager;
+        this.authServerUrl = authServerUrl;
+    }
 
     @PostMapping("/token")
     public ResponseEntity<Map<String, Object>> getToken(
@@ -57,16 +70,20 @@ public class OAuth2ClientController {
             
             HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(body, headers);
             
-            ResponseEntity<Map> response = restTemplate.postForEntity(
-                authServerUrl + "/oauth2/token", 
-                request, 
-                Map.class
-            );
+            // client_credentials é reutilizável até expirar; os demais grants sempre vão ao servidor
+            Map<String, Object> tokenResponse;
+            if ("client_credentials".equals(grant_type) && client_id != null && client_secret != null) {
+                tokenResponse = tokenManager.getToken(
+                        tokenManager.tokenKey(client_id, client_secret, grant_type, scope),
+                        () -> requestToken(request));
+            } else {
+                tokenResponse = requestToken(request);
+            }
             
             Map<String, Object> result = new HashMap<>();
             result.put("success", true);
-            result.put("token_response", response.getBody());
-            result.put("status", response.getStatusCode());
+            result.put("token_response", tokenResponse);
+            result.put("status", HttpStatus.OK);
             
             return ResponseEntity.ok(result);
             
@@ -97,17 +114,16 @@ public class OAuth2ClientController {
             
             HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(body, headers);
             
-            ResponseEntity<Map> tokenResponse = restTemplate.postForEntity(
-                authServerUrl + "/oauth2/token", 
-                request, 
-                Map.class
+            Map<String, Object> tokenResponse = tokenManager.getToken(
+                tokenManager.tokenKey("client-app", "secret", "client_credentials", "read write"),
+                () -> requestToken(request)
             );
             
             Map<String, Object> result = new HashMap<>();
             result.put("message", "Token obtido com sucesso usando Client Credentials");
-            result.put("token_info", tokenResponse.getBody());
+            result.put("token_info", tokenResponse);
             result.put("usage_example", Map.of(
-                "header", "Authorization: Bearer " + ((Map<?, ?>) tokenResponse.getBody()).get("access_token"),
+                "header", "Authorization: Bearer " + tokenResponse.get("access_token"),
                 "api_call", "GET /api/user/profile"
             ));
             
@@ -158,6 +174,16 @@ public class OAuth2ClientController {
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> requestToken(HttpEntity<MultiValueMap<String, String>> request) {
+        ResponseEntity<Map> response = restTemplate.postForEntity(
+            authServerUrl + "/oauth2/token", 
+            request, 
+            Map.class
+        );
+        return response.getBody();
+    }
+
     @GetMapping("/authorization-url")
     public ResponseEntity<Map<String, Object>> getAuthorizationUrl(
             @RequestParam(defaultValue = "client-app") String client_id,
@@ -0,0 +1,56 @@
+package com.example.oauth2.controller;
+
+import com.example.oauth2.dto.BatchIntrospectionRequest;
+import com.example.oauth2.dto.BatchIntrospectionResponse;
+import com.example.oauth2.service.CachingTokenIntrospectionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Introspecção em lote para serviços que não verificam JWT localmente: o cliente se autentica com
+ * {@code client_secret_basic} (ver {@code batchIntrospectionSecurityFilterChain}) e envia vários tokens
+ * em uma chamada.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class TokenIntrospectionController {
+
+    public static final String BATCH_INTROSPECTION_ENDPOINT = "/oauth2/introspect/batch";
+
+    private final CachingTokenIntrospectionService introspectionService;
+    private final int maximumTokens;
+
+    public TokenIntrospectionController(CachingTokenIntrospectionService introspectionService,
+            @Value("${app.introspection.batch.maximum-tokens:100}") int maximumTokens) {
+        this.introspectionService = introspectionService;
+        this.maximumTokens = maximumTokens;
+    }
+
+    @PostMapping(path = BATCH_INTROSPECTION_ENDPOINT, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> introspect(@RequestBody BatchIntrospectionRequest request, Authentication authentication) {
+        if (request.tokens() == null || request.tokens().isEmpty() || request.tokens().contains(null)) {
+            return invalidRequest("tokens deve ser uma lista não vazia de tokens");
+        }
+        if (request.tokens().size() > maximumTokens) {
+            return invalidRequest("no máximo " + maximumTokens + " tokens por chamada");
+        }
+        return ResponseEntity.ok(new BatchIntrospectionResponse(
+                introspectionService.introspect(request.tokens(), authentication)));
+    }
+
+    private static ResponseEntity<Map<String, String>> invalidRequest(String description) {
+        return ResponseEntity.badRequest().body(Map.of(
+                OAuth2ParameterNames.ERROR, OAuth2ErrorCodes.INVALID_REQUEST,
+                OAuth2ParameterNames.ERROR_DESCRIPTION, description));
+    }
+}
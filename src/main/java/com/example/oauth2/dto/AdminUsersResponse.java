@@ -0,0 +1,22 @@
+package com.example.oauth2.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Resposta de {@code GET /api/admin/users}. {@code admin_info} só aparece quando o principal é um JWT.
+ */
+public record AdminUsersResponse(String message, String access, List<UserSummary> users,
+                                 @JsonProperty("admin_info") @JsonInclude(JsonInclude.Include.NON_NULL) AdminInfo adminInfo,
+                                 LocalDateTime timestamp) {
+
+    public record UserSummary(int id, String username, String role) {
+    }
+
+    public record AdminInfo(@JsonProperty("admin_user") String adminUser, List<String> scopes,
+                            @JsonProperty("client_id") String clientId) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.oauth2.dto;
+
+import java.util.List;
+
+/**
+ * Corpo de {@code POST /oauth2/introspect/batch}: os tokens a verificar, de qualquer tipo.
+ */
+public record BatchIntrospectionRequest(List<String> tokens) {
+}
@@ -0,0 +1,11 @@
+package com.example.oauth2.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resposta de {@code POST /oauth2/introspect/batch}: um resultado por token, na ordem do pedido, com os
+ * mesmos campos de {@code /oauth2/introspect} (RFC 7662).
+ */
+public record BatchIntrospectionResponse(List<Map<String, Object>> results) {
+}
@@ -0,0 +1,23 @@
+package com.example.oauth2.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.net.URL;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Resposta de {@code GET /api/protected/info}. {@code token_details} só aparece quando o principal é um JWT.
+ */
+public record ProtectedInfoResponse(String message, String access,
+                                    @JsonProperty("token_details") @JsonInclude(JsonInclude.Include.NON_NULL) TokenDetails tokenDetails,
+                                    LocalDateTime timestamp) {
+
+    public record TokenDetails(String subject, List<String> audience, URL issuer, List<String> scopes,
+                               @JsonProperty("client_id") String clientId,
+                               @JsonProperty("issued_at") Instant issuedAt,
+                               @JsonProperty("expires_at") Instant expiresAt) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.oauth2.dto;
+
+/**
+ * Resposta de {@code GET /api/public/info}. Constante: é serializada uma única vez e o
+ * {@code timestamp} é acrescentado a cada resposta.
+ */
+public record PublicInfoResponse(String message, String access) {
+}
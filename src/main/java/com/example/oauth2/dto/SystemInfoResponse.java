@@ -0,0 +1,14 @@
+package com.example.oauth2.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Resposta de {@code GET /api/admin/system}. Constante: é serializada uma única vez e o
+ * {@code timestamp} é acrescentado a cada resposta.
+ */
+public record SystemInfoResponse(String message, String access, SystemInfo system) {
+
+    public record SystemInfo(String version, String environment, String database,
+                             @JsonProperty("oauth2_enabled") boolean oauth2Enabled) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.oauth2.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Resposta de {@code GET /api/user/data}. {@code token_info} só aparece quando o principal é um JWT.
+ */
+public record UserDataResponse(String message, String access, UserData data,
+                               @JsonProperty("token_info") @JsonInclude(JsonInclude.Include.NON_NULL) TokenInfo tokenInfo,
+                               LocalDateTime timestamp) {
+
+    public record UserData(int id, String name, String email, String role) {
+    }
+
+    public record TokenInfo(String subject,
+                            @JsonProperty("issued_at") Instant issuedAt,
+                            @JsonProperty("expires_at") Instant expiresAt) {
+    }
+}
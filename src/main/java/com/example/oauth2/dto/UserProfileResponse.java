@@ -0,0 +1,13 @@
+package com.example.oauth2.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Resposta de {@code GET /api/user/profile}.
+ */
+public record UserProfileResponse(String message, String access, String user, List<String> scopes,
+                                  @JsonProperty("client_id") String clientId, LocalDateTime timestamp) {
+}
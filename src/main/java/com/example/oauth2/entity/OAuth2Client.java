@@ -1,9 +1,11 @@
 package com.example.oauth2.entity;
 
+import com.example.oauth2.entity.converter.StringSetConverter;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Set;
 
@@ -15,6 +17,11 @@ public class OAuth2Client {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    @NotBlank
+    @Size(max = 100)
+    @Column(name = "registered_client_id", unique = true)
+    private String registeredClientId;
+    
     @NotBlank
     @Size(max = 100)
     @Column(name = "client_id", unique = true)
@@ -24,25 +31,36 @@ public class OAuth2Client {
     @Column(name = "client_secret")
     private String clientSecret;
     
+    @Column(name = "client_id_issued_at")
+    private Instant clientIdIssuedAt;
+    
+    @Column(name = "client_secret_expires_at")
+    private Instant clientSecretExpiresAt;
+    
     @NotBlank
     @Size(max = 100)
     @Column(name = "client_name")
     private String clientName;
     
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "oauth2_client_redirect_uris", joinColumns = @JoinColumn(name = "client_id"))
-    @Column(name = "redirect_uri")
+    @Column(name = "client_authentication_methods", length = 1000)
+    @Convert(converter = StringSetConverter.class)
+    private Set<String> clientAuthenticationMethods;
+    
+    @Column(name = "authorization_grant_types", length = 1000)
+    @Convert(converter = StringSetConverter.class)
+    private Set<String> grantTypes;
+    
+    @Column(name = "redirect_uris", length = 1000)
+    @Convert(converter = StringSetConverter.class)
     private Set<String> redirectUris;
     
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "oauth2_client_scopes", joinColumns = @JoinColumn(name = "client_id"))
-    @Column(name = "scope")
-    private Set<String> scopes;
+    @Column(name = "post_logout_redirect_uris", length = 1000)
+    @Convert(converter = StringSetConverter.class)
+    private Set<String> postLogoutRedirectUris;
     
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "oauth2_client_grant_types", joinColumns = @JoinColumn(name = "client_id"))
-    @Column(name = "grant_type")
-    private Set<String> grantTypes;
+    @Column(name = "scopes", length = 1000)
+    @Convert(converter = StringSetConverter.class)
+    private Set<String> scopes;
     
     @Column(name = "access_token_validity")
     private Integer accessTokenValidity = 3600; // 1 hour
@@ -53,6 +71,14 @@ public class OAuth2Client {
     @Column(name = "require_consent")
     private Boolean requireConsent = false;
     
+    // ClientSettings e TokenSettings completos, em JSON como no JdbcRegisteredClientRepository do SAS;
+    // as colunas acima guardam só os valores mais consultados
+    @Column(name = "client_settings", length = 2000)
+    private String clientSettings;
+    
+    @Column(name = "token_settings", length = 2000)
+    private String tokenSettings;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -89,6 +115,14 @@ public class OAuth2Client {
         this.id = id;
     }
     
+    public String getRegisteredClientId() {
+        return registeredClientId;
+    }
+    
+    public void setRegisteredClientId(String registeredClientId) {
+        this.registeredClientId = registeredClientId;
+    }
+    
     public String getClientId() {
         return clientId;
     }
@@ -105,6 +139,22 @@ public class OAuth2Client {
         this.clientSecret = clientSecret;
     }
     
+    public Instant getClientIdIssuedAt() {
+        return clientIdIssuedAt;
+    }
+    
+    public void setClientIdIssuedAt(Instant clientIdIssuedAt) {
+        this.clientIdIssuedAt = clientIdIssuedAt;
+    }
+    
+    public Instant getClientSecretExpiresAt() {
+        return clientSecretExpiresAt;
+    }
+    
+    public void setClientSecretExpiresAt(Instant clientSecretExpiresAt) {
+        this.clientSecretExpiresAt = clientSecretExpiresAt;
+    }
+    
     public String getClientName() {
         return clientName;
     }
@@ -121,6 +171,22 @@ public class OAuth2Client {
         this.redirectUris = redirectUris;
     }
     
+    public Set<String> getClientAuthenticationMethods() {
+        return clientAuthenticationMethods;
+    }
+    
+    public void setClientAuthenticationMethods(Set<String> clientAuthenticationMethods) {
+        this.clientAuthenticationMethods = clientAuthenticationMethods;
+    }
+    
+    public Set<String> getPostLogoutRedirectUris() {
+        return postLogoutRedirectUris;
+    }
+    
+    public void setPostLogoutRedirectUris(Set<String> postLogoutRedirectUris) {
+        this.postLogoutRedirectUris = postLogoutRedirectUris;
+    }
+    
     public Set<String> getScopes() {
         return scopes;
     }
@@ -161,6 +227,22 @@ public class OAuth2Client {
         this.requireConsent = requireConsent;
     }
     
+    public String getClientSettings() {
+        return clientSettings;
+    }
+    
+    public void setClientSettings(String clientSettings) {
+        this.clientSettings = clientSettings;
+    }
+    
+    public String getTokenSettings() {
+        return tokenSettings;
+    }
+    
+    public void setTokenSettings(String tokenSettings) {
+        this.tokenSettings = tokenSettings;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,32 @@
+package com.example.oauth2.entity.converter;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.util.StringUtils;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Armazena um conjunto pequeno de strings em uma única coluna, separado por vírgulas,
+ * no mesmo formato do schema JDBC do Spring Authorization Server.
+ */
+@Converter
+public class StringSetConverter implements AttributeConverter<Set<String>, String> {
+
+    @Override
+    public String convertToDatabaseColumn(Set<String> attribute) {
+        if (attribute == null || attribute.isEmpty()) {
+            return null;
+        }
+        return StringUtils.collectionToCommaDelimitedString(attribute);
+    }
+
+    @Override
+    public Set<String> convertToEntityAttribute(String dbData) {
+        if (!StringUtils.hasText(dbData)) {
+            return Collections.emptySet();
+        }
+        return StringUtils.commaDelimitedListToSet(dbData);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.oauth2.entity.listener;
+
+import com.example.oauth2.entity.User;
+import com.example.oauth2.service.UserChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Publica um {@link UserChangedEvent} a cada escrita de {@link User}. Instanciado pelo Hibernate
+ * através do container de beans do Spring, por isso recebe o publisher no construtor.
+ */
+public class UserChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public UserChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(this, user.getId(), user.getUsername()));
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.oauth2.http;
+
+final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Comparação fraca do {@code If-None-Match} (RFC 9110, 13.1.2): {@code W/"x"} e {@code "x"} correspondem.
+     *
+     * @param opaqueTag a tag entre aspas, sem o prefixo {@code W/}
+     */
+    static boolean matches(String ifNoneMatch, String opaqueTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
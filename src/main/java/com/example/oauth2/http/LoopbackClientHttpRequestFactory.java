@@ -0,0 +1,197 @@
+package com.example.oauth2.http;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.Servlet;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.Assert;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * {@link ClientHttpRequestFactory} que executa em processo as requisições destinadas a esta mesma instância
+ * ({@code http://localhost:<porta do servidor>}): a requisição passa pelo {@code springSecurityFilterChain}
+ * e pelo {@code DispatcherServlet} na thread atual, sem conexão TCP nem uma segunda thread do Tomcat.
+ * As demais requisições vão para o factory delegate.
+ * <p>
+ * Só é usado dentro de uma requisição HTTP (a requisição em processo é construída sobre ela, com atributos,
+ * sessão e principal próprios); fora disso a chamada vai pela rede.
+ * <p>
+ * Opcional ({@code app.http-client.loopback.enabled}), porque a chamada em processo não é idêntica à da rede:
+ * <ul>
+ *     <li>os demais filtros do container não rodam: {@code CharacterEncodingFilter}, a observação
+ *     {@code http.server.requests} e o {@code RequestTracingFilter} ({@code app.tracing});</li>
+ *     <li>não há páginas de erro do container: um {@code sendError} devolve o status com o corpo vazio, sem o
+ *     JSON do {@code BasicErrorController};</li>
+ *     <li>{@code getRemoteAddr()} é sempre {@code 127.0.0.1}, e não o endereço do cliente original.</li>
+ * </ul>
+ */
+public class LoopbackClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoopbackClientHttpRequestFactory.class);
+
+    private final ClientHttpRequestFactory delegate;
+    private final IntSupplier localPort;
+    private final Supplier<Filter> securityFilterChain;
+    private final Supplier<Servlet> dispatcherServlet;
+
+    public LoopbackClientHttpRequestFactory(ClientHttpRequestFactory delegate, IntSupplier localPort,
+                                            Supplier<? extends Filter> securityFilterChain,
+                                            Supplier<? extends Servlet> dispatcherServlet) {
+        Assert.notNull(delegate, "delegate cannot be null");
+        Assert.notNull(localPort, "localPort cannot be null");
+        Assert.notNull(securityFilterChain, "securityFilterChain cannot be null");
+        Assert.notNull(dispatcherServlet, "dispatcherServlet cannot be null");
+        this.delegate = delegate;
+        this.localPort = localPort;
+        this.securityFilterChain = securityFilterChain::get;
+        this.dispatcherServlet = dispatcherServlet::get;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        HttpServletRequest currentRequest = currentRequest();
+        if (currentRequest != null && isLocal(uri, currentRequest)) {
+            return new LoopbackClientHttpRequest(uri, httpMethod, currentRequest);
+        }
+        return delegate.createRequest(uri, httpMethod);
+    }
+
+    private boolean isLocal(URI uri, HttpServletRequest currentRequest) {
+        if (!"http".equalsIgnoreCase(uri.getScheme()) || uri.getHost() == null) {
+            return false;
+        }
+        int port = uri.getPort() != -1 ? uri.getPort() : 80;
+        String path = uri.getRawPath() != null ? uri.getRawPath() : "";
+        return port == localPort.getAsInt()
+                && isLoopbackHost(uri.getHost())
+                && path.startsWith(currentRequest.getContextPath());
+    }
+
+    // Sem resolução de DNS: apenas os nomes que sempre apontam para a própria máquina
+    private static boolean isLoopbackHost(String host) {
+        return "localhost".equalsIgnoreCase(host) || "127.0.0.1".equals(host)
+                || "[::1]".equals(host) || "::1".equals(host);
+    }
+
+    private static HttpServletRequest currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servletAttributes ? servletAttributes.getRequest() : null;
+    }
+
+    private final class LoopbackClientHttpRequest extends AbstractClientHttpRequest {
+
+        private final URI uri;
+        private final HttpMethod method;
+        private final HttpServletRequest currentRequest;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+
+        private LoopbackClientHttpRequest(URI uri, HttpMethod method, HttpServletRequest currentRequest) {
+            this.uri = uri;
+            this.method = method;
+            this.currentRequest = currentRequest;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return method;
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        protected OutputStream getBodyInternal(HttpHeaders headers) {
+            return body;
+        }
+
+        @Override
+        protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+            LoopbackHttpServletRequest request = new LoopbackHttpServletRequest(currentRequest, method.name(), uri,
+                    headers, body.toByteArray());
+            LoopbackHttpServletResponse response = new LoopbackHttpServletResponse();
+
+            // A cadeia de segurança limpa o SecurityContext ao terminar; o da requisição externa é restaurado
+            SecurityContext outerContext = SecurityContextHolder.getContext();
+            try {
+                securityFilterChain.get().doFilter(request, response,
+                        (innerRequest, innerResponse) -> dispatcherServlet.get().service(innerRequest, innerResponse));
+            }
+            catch (ServletException | RuntimeException ex) {
+                // Como o container faria: a falha vira um 500 para o chamador
+                logger.warn("Loopback request {} {} failed", method, uri.getRawPath(), ex);
+                if (!response.isCommitted()) {
+                    response.reset();
+                    response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
+                }
+            }
+            finally {
+                SecurityContextHolder.setContext(outerContext);
+            }
+            return new LoopbackClientHttpResponse(response);
+        }
+    }
+
+    private static final class LoopbackClientHttpResponse implements ClientHttpResponse {
+
+        private final int status;
+        private final HttpHeaders headers;
+        private final byte[] body;
+
+        private LoopbackClientHttpResponse(LoopbackHttpServletResponse response) {
+            this.status = response.getStatus();
+            this.headers = response.getHttpHeaders();
+            this.body = response.getContentAsByteArray();
+            this.headers.setContentLength(body.length);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return HttpStatusCode.valueOf(status);
+        }
+
+        @Override
+        public String getStatusText() {
+            HttpStatus httpStatus = HttpStatus.resolve(status);
+            return httpStatus != null ? httpStatus.getReasonPhrase() : "";
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
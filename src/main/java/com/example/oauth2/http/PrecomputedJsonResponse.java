@@ -0,0 +1,91 @@
+package com.example.oauth2.http;
+
+import com.example.oauth2.security.TokenHashes;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+/**
+ * Resposta JSON de conteúdo fixo, serializada uma única vez, à qual só o campo {@code timestamp}
+ * é acrescentado a cada requisição.
+ * <p>
+ * O ETag é fraco ({@code W/"..."}) e calculado sobre a parte fixa: respostas que diferem apenas no
+ * {@code timestamp} são equivalentes. Um {@code If-None-Match} correspondente recebe 304 sem corpo.
+ */
+public final class PrecomputedJsonResponse {
+
+    private static final byte[] TIMESTAMP_FIELD = ",\"timestamp\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] END = "\"}".getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[] prefix;
+    private final String opaqueTag;
+    private final String eTag;
+    // Somente leitura: reaproveitados por todas as respostas
+    private final HttpHeaders headers;
+    private final HttpHeaders notModifiedHeaders;
+
+    /**
+     * @param content objeto serializado como um JSON object, sem campo {@code timestamp}
+     */
+    public PrecomputedJsonResponse(ObjectMapper objectMapper, Object content, CacheControl cacheControl) {
+        Assert.notNull(content, "content cannot be null");
+        Assert.notNull(cacheControl, "cacheControl cannot be null");
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(content);
+        }
+        catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Cannot serialize " + content.getClass().getName(), ex);
+        }
+        Assert.isTrue(json.length > 2 && json[0] == '{' && json[json.length - 1] == '}',
+                "content must serialize to a non-empty JSON object");
+        // Sem o '}' final: o timestamp entra como último campo
+        this.prefix = Arrays.copyOf(json, json.length - 1);
+        this.opaqueTag = "\"" + TokenHashes.sha256(new String(json, StandardCharsets.UTF_8)) + "\"";
+        this.eTag = "W/" + opaqueTag;
+
+        HttpHeaders notModified = new HttpHeaders();
+        notModified.setETag(eTag);
+        notModified.setCacheControl(cacheControl);
+        this.notModifiedHeaders = HttpHeaders.readOnlyHttpHeaders(notModified);
+        HttpHeaders ok = new HttpHeaders();
+        ok.addAll(notModified);
+        ok.setContentType(MediaType.APPLICATION_JSON);
+        this.headers = HttpHeaders.readOnlyHttpHeaders(ok);
+    }
+
+    /**
+     * 304 se {@code ifNoneMatch} corresponde ao ETag; caso contrário 200 com o conteúdo e o {@code timestamp} atual.
+     */
+    public ResponseEntity<byte[]> render(String ifNoneMatch) {
+        if (ETags.matches(ifNoneMatch, opaqueTag)) {
+            return new ResponseEntity<>(notModifiedHeaders, HttpStatus.NOT_MODIFIED);
+        }
+        // Mesmo formato do LocalDateTimeSerializer do Jackson
+        byte[] formatted = DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(LocalDateTime.now()).getBytes(StandardCharsets.US_ASCII);
+        byte[] body = new byte[prefix.length + TIMESTAMP_FIELD.length + formatted.length + END.length];
+        int position = 0;
+        System.arraycopy(prefix, 0, body, position, prefix.length);
+        position += prefix.length;
+        System.arraycopy(TIMESTAMP_FIELD, 0, body, position, TIMESTAMP_FIELD.length);
+        position += TIMESTAMP_FIELD.length;
+        System.arraycopy(formatted, 0, body, position, formatted.length);
+        position += formatted.length;
+        System.arraycopy(END, 0, body, position, END.length);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+}
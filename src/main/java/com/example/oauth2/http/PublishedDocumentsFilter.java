@@ -0,0 +1,144 @@
+package com.example.oauth2.http;
+
+import com.example.oauth2.security.SigningKeyManager;
+import com.example.oauth2.security.TokenHashes;
+import com.nimbusds.jose.jwk.JWKSet;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.server.authorization.settings.AuthorizationServerSettings;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serve o JWKS e os documentos de descoberta ({@code /.well-known/openid-configuration} e
+ * {@code /.well-known/oauth-authorization-server}) a partir de bytes já serializados, com ETag forte
+ * e 304 para um {@code If-None-Match} correspondente.
+ * <ul>
+ *     <li>JWKS: gerado a partir de {@link SigningKeyManager#getPublicJwkSet()} e refeito só quando a instância
+ *     muda (rotação). O {@code max-age} vai até a próxima mudança prevista das chaves, limitado a {@code maxAge}.</li>
+ *     <li>Descoberta: a primeira resposta dos endpoints do authorization server é capturada e reaproveitada;
+ *     as configurações não mudam em execução. Só com issuer fixo: sem ele o documento depende do host
+ *     da requisição.</li>
+ * </ul>
+ */
+public class PublishedDocumentsFilter extends OncePerRequestFilter {
+
+    private static final String OIDC_CONFIGURATION_ENDPOINT = "/.well-known/openid-configuration";
+    private static final String AUTHORIZATION_SERVER_METADATA_ENDPOINT = "/.well-known/oauth-authorization-server";
+
+    private final SigningKeyManager signingKeyManager;
+    private final String jwkSetEndpoint;
+    private final Set<String> metadataEndpoints;
+    private final Duration maxAge;
+    private final String metadataCacheControl;
+    private final Map<String, Document> metadata = new ConcurrentHashMap<>();
+    private volatile Document jwks;
+
+    public PublishedDocumentsFilter(SigningKeyManager signingKeyManager, AuthorizationServerSettings settings,
+            Duration maxAge) {
+        this.signingKeyManager = signingKeyManager;
+        this.jwkSetEndpoint = settings.getJwkSetEndpoint();
+        this.metadataEndpoints = settings.getIssuer() != null
+                ? Set.of(OIDC_CONFIGURATION_ENDPOINT, AUTHORIZATION_SERVER_METADATA_ENDPOINT)
+                : Set.of();
+        this.maxAge = maxAge;
+        this.metadataCacheControl = "max-age=" + maxAge.toSeconds();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.equals(jwkSetEndpoint) && !metadataEndpoints.contains(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.equals(jwkSetEndpoint)) {
+            write(request, response, currentJwks(), jwksCacheControl());
+            return;
+        }
+        Document document = metadata.get(path);
+        if (document != null) {
+            write(request, response, document, metadataCacheControl);
+            return;
+        }
+        capture(path, request, response, filterChain);
+    }
+
+    private Document currentJwks() {
+        JWKSet jwkSet = signingKeyManager.getPublicJwkSet();
+        Document current = jwks;
+        if (current == null || current.source != jwkSet) {
+            // Corridas só refazem o mesmo documento
+            current = new Document(jwkSet, jwkSet.toString().getBytes(StandardCharsets.UTF_8));
+            jwks = current;
+        }
+        return current;
+    }
+
+    // Até a próxima troca de chaves; depois dela (e até a verificação agendada) os clientes revalidam a cada uso
+    private String jwksCacheControl() {
+        Duration untilChange = Duration.between(Instant.now(), signingKeyManager.getNextKeyChange());
+        long seconds = Math.max(0, Math.min(untilChange.toSeconds(), maxAge.toSeconds()));
+        return seconds > 0 ? "max-age=" + seconds : "no-cache";
+    }
+
+    private void capture(String path, HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK) {
+            Document document = new Document(path, wrapper.getContentAsByteArray());
+            metadata.putIfAbsent(path, document);
+            wrapper.setHeader(HttpHeaders.ETAG, document.eTag);
+            wrapper.setHeader(HttpHeaders.CACHE_CONTROL, metadataCacheControl);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private static void write(HttpServletRequest request, HttpServletResponse response, Document document,
+            String cacheControl) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, document.eTag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        if (ETags.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), document.eTag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(document.body.length);
+        response.getOutputStream().write(document.body);
+    }
+
+    private static final class Document {
+
+        // Identifica a versão de origem (o JWKSet ou o caminho), comparada por referência
+        final Object source;
+        final byte[] body;
+        final String eTag;
+
+        Document(Object source, byte[] body) {
+            this.source = source;
+            this.body = body;
+            this.eTag = "\"" + TokenHashes.sha256(new String(body, StandardCharsets.UTF_8)) + "\"";
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.oauth2.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+import org.springframework.util.StringUtils;
+
+/**
+ * Libera os logs a partir de {@code level} dos loggers em {@code loggers} (prefixos separados por vírgula)
+ * nas requisições rastreadas ({@link RequestTracing}), independente do nível configurado para eles.
+ * Fora delas responde {@code NEUTRAL} e vale a configuração normal de níveis.
+ */
+public class RequestTraceTurboFilter extends TurboFilter {
+
+    private String[] loggers = new String[0];
+    private Level level = Level.DEBUG;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!RequestTracing.isTraced() || level == null || !level.isGreaterOrEqual(this.level)) {
+            return FilterReply.NEUTRAL;
+        }
+        String name = logger.getName();
+        for (String prefix : loggers) {
+            if (name.startsWith(prefix)) {
+                return FilterReply.ACCEPT;
+            }
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    public void setLoggers(String loggers) {
+        this.loggers = StringUtils.tokenizeToStringArray(loggers, ",");
+    }
+
+    public void setLevel(String level) {
+        this.level = Level.toLevel(level, Level.DEBUG);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.oauth2.logging;
+
+import org.slf4j.MDC;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Marca a thread que está atendendo uma requisição selecionada para rastreamento. O
+ * {@link RequestTraceTurboFilter} libera os logs detalhados apenas nessas threads.
+ * <p>
+ * Enquanto nenhuma requisição é rastreada, {@link #isTraced()} se resume à leitura de um contador, que é o
+ * custo pago por toda chamada de log.
+ */
+public final class RequestTracing {
+
+    /** Chave no MDC com o identificador do rastreamento, para separar as linhas de cada requisição. */
+    public static final String MDC_KEY = "trace";
+
+    private static final AtomicInteger ACTIVE = new AtomicInteger();
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private RequestTracing() {
+    }
+
+    public static boolean isTraced() {
+        return ACTIVE.get() != 0 && CURRENT.get() != null;
+    }
+
+    /**
+     * Liga o rastreamento na thread atual; o {@link Scope} devolvido desliga e restaura o estado anterior.
+     */
+    public static Scope start(String traceId) {
+        String previous = CURRENT.get();
+        String previousMdc = MDC.get(MDC_KEY);
+        CURRENT.set(traceId);
+        MDC.put(MDC_KEY, traceId);
+        ACTIVE.incrementAndGet();
+        return () -> {
+            ACTIVE.decrementAndGet();
+            if (previous != null) {
+                CURRENT.set(previous);
+            }
+            else {
+                CURRENT.remove();
+            }
+            if (previousMdc != null) {
+                MDC.put(MDC_KEY, previousMdc);
+            }
+            else {
+                MDC.remove(MDC_KEY);
+            }
+        };
+    }
+
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.oauth2.logging;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Escolhe as requisições rastreadas com logs detalhados ({@link RequestTracing}):
+ * <ul>
+ *     <li>com o header {@code headerName}; um valor curto (letras, dígitos, {@code -}) vira o identificador
+ *     do rastreamento, devolvido no mesmo header da resposta;</li>
+ *     <li>de um dos {@code clientIds}: {@code client_id} do formulário, usuário do {@code Authorization: Basic}
+ *     ou {@code azp}/{@code aud}/{@code sub} do bearer token (lido sem verificar a assinatura, só para
+ *     a seleção);</li>
+ *     <li>por amostragem, com probabilidade {@code sampleRate}.</li>
+ * </ul>
+ */
+public class RequestTracingFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestTracingFilter.class);
+    private static final Pattern TRACE_ID = Pattern.compile("[A-Za-z0-9-]{1,64}");
+
+    private final String headerName;
+    private final Set<String> clientIds;
+    private final double sampleRate;
+    private final ObjectMapper objectMapper;
+
+    public RequestTracingFilter(String headerName, Set<String> clientIds, double sampleRate, ObjectMapper objectMapper) {
+        this.headerName = headerName;
+        this.clientIds = Set.copyOf(clientIds);
+        this.sampleRate = sampleRate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String reason = selectionReason(request);
+        if (reason == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String requested = request.getHeader(headerName);
+        String traceId = requested != null && TRACE_ID.matcher(requested).matches()
+                ? requested
+                : HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextInt());
+        response.setHeader(headerName, traceId);
+        try (RequestTracing.Scope ignored = RequestTracing.start(traceId)) {
+            logger.debug("Rastreando {} {} ({})", request.getMethod(), request.getRequestURI(), reason);
+            filterChain.doFilter(request, response);
+            logger.debug("Rastreamento concluído com status {}", response.getStatus());
+        }
+    }
+
+    private String selectionReason(HttpServletRequest request) {
+        if (request.getHeader(headerName) != null) {
+            return "header";
+        }
+        if (!clientIds.isEmpty()) {
+            String clientId = clientId(request);
+            if (clientId != null) {
+                return "client_id=" + clientId;
+            }
+        }
+        if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            return "amostragem";
+        }
+        return null;
+    }
+
+    // Só o que já está na requisição; nenhuma credencial é validada aqui
+    private String clientId(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.regionMatches(true, 0, "Basic ", 0, 6)) {
+            String basicClientId = basicUser(authorization.substring(6).trim());
+            if (basicClientId != null && clientIds.contains(basicClientId)) {
+                return basicClientId;
+            }
+        }
+        else if (authorization != null && authorization.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            String bearerClientId = bearerClient(authorization.substring(7).trim());
+            if (bearerClientId != null) {
+                return bearerClientId;
+            }
+        }
+        String parameter = request.getParameter("client_id");
+        return parameter != null && clientIds.contains(parameter) ? parameter : null;
+    }
+
+    private static String basicUser(String credentials) {
+        try {
+            String decoded = new String(Base64.getDecoder().decode(credentials), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            return separator > 0 ? URLDecoder.decode(decoded.substring(0, separator), StandardCharsets.UTF_8) : null;
+        }
+        catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private String bearerClient(String token) {
+        int start = token.indexOf('.');
+        int end = token.indexOf('.', start + 1);
+        if (start < 0 || end < 0) {
+            return null;
+        }
+        try {
+            JsonNode claims = objectMapper.readTree(Base64.getUrlDecoder().decode(token.substring(start + 1, end)));
+            for (String claim : new String[] {"azp", "client_id", "sub"}) {
+                String value = claims.path(claim).asText(null);
+                if (value != null && clientIds.contains(value)) {
+                    return value;
+                }
+            }
+            // aud pode ser uma string ou uma lista; para a string o laço não itera
+            JsonNode audience = claims.path("aud");
+            if (audience.isTextual() && clientIds.contains(audience.asText())) {
+                return audience.asText();
+            }
+            for (JsonNode value : audience) {
+                if (clientIds.contains(value.asText())) {
+                    return value.asText();
+                }
+            }
+        }
+        catch (IOException | IllegalArgumentException ex) {
+            // Token ilegível: a cadeia de segurança vai recusá-lo
+        }
+        return null;
+    }
+}
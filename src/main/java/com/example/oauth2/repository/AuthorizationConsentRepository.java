@@ -0,0 +1,17 @@
+package com.example.oauth2.repository;
+
+import com.example.oauth2.entity.AuthorizationConsent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AuthorizationConsentRepository extends JpaRepository<AuthorizationConsent, Long> {
+
+    // Uma única consulta pelo índice único (registered_client_id, user_id); c.user fica como proxy com o id
+    @Query("select c from AuthorizationConsent c join c.user u "
+            + "where c.registeredClientId = :registeredClientId and u.username = :username")
+    Optional<AuthorizationConsent> findByRegisteredClientIdAndUsername(String registeredClientId, String username);
+}
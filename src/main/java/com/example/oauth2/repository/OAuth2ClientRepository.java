@@ -8,6 +8,7 @@ import java.util.Optional;
 
 @Repository
 public interface OAuth2ClientRepository extends JpaRepository<OAuth2Client, Long> {
+    Optional<OAuth2Client> findByRegisteredClientId(String registeredClientId);
     Optional<OAuth2Client> findByClientId(String clientId);
     Boolean existsByClientId(String clientId);
 }
\ No newline at end of file
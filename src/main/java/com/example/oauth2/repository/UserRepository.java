@@ -2,6 +2,7 @@ package com.example.oauth2.repository;
 
 import com.example.oauth2.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,6 +10,11 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    // Usuário e roles em uma única consulta (roles é LAZY)
+    @Query("select u from User u left join fetch u.roles where u.username = :username")
+    Optional<User> findWithRolesByUsername(String username);
+
     Optional<User> findByEmail(String email);
     Boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
@@ -0,0 +1,144 @@
+package com.example.oauth2.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.util.Assert;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Decora o {@code ClientSecretAuthenticationProvider} do authorization server guardando, por um TTL curto,
+ * as credenciais {@code client_secret_basic}/{@code client_secret_post} já verificadas.
+ * <ul>
+ *     <li>A chave é um HMAC-SHA256 de {@code clientId:secret} com uma chave aleatória gerada no boot,
+ *     então o cache não guarda nada que permita testar secrets offline;</li>
+ *     <li>cada entrada guarda o SHA-256 do secret codificado no momento da verificação: se o secret do
+ *     cliente mudar, a comparação (em tempo constante) falha e a verificação completa é refeita;</li>
+ *     <li>falhas nunca são guardadas, e o grant {@code authorization_code} sempre passa pelo delegate,
+ *     que também valida o PKCE.</li>
+ * </ul>
+ */
+public class CachingClientSecretAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final RegisteredClientRepository registeredClientRepository;
+    private final SecretKey hmacKey;
+    private final Cache<String, VerifiedSecret> cache;
+
+    public CachingClientSecretAuthenticationProvider(AuthenticationProvider delegate,
+                                                     RegisteredClientRepository registeredClientRepository,
+                                                     long maximumSize, Duration ttl) {
+        Assert.notNull(delegate, "delegate cannot be null");
+        Assert.notNull(registeredClientRepository, "registeredClientRepository cannot be null");
+        this.delegate = delegate;
+        this.registeredClientRepository = registeredClientRepository;
+        try {
+            this.hmacKey = KeyGenerator.getInstance("HmacSHA256").generateKey();
+        }
+        catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        OAuth2ClientAuthenticationToken clientAuthentication = (OAuth2ClientAuthenticationToken) authentication;
+        if (!isCacheable(clientAuthentication)) {
+            return delegate.authenticate(authentication);
+        }
+
+        String key = cacheKey(clientAuthentication);
+        VerifiedSecret verified = cache.getIfPresent(key);
+        if (verified != null) {
+            RegisteredClient registeredClient = registeredClientRepository.findById(verified.registeredClientId());
+            if (isStillValid(registeredClient, verified, clientAuthentication.getClientAuthenticationMethod())) {
+                return new OAuth2ClientAuthenticationToken(registeredClient,
+                        clientAuthentication.getClientAuthenticationMethod(), clientAuthentication.getCredentials());
+            }
+            cache.invalidate(key);
+        }
+
+        Authentication result = delegate.authenticate(authentication);
+        if (result instanceof OAuth2ClientAuthenticationToken authenticated && authenticated.isAuthenticated()) {
+            // Usa o cliente devolvido pelo delegate: o secret pode ter acabado de ser recodificado
+            RegisteredClient registeredClient = authenticated.getRegisteredClient();
+            cache.put(key, new VerifiedSecret(registeredClient.getId(), fingerprint(registeredClient.getClientSecret())));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+
+    public Cache<String, VerifiedSecret> getCache() {
+        return cache;
+    }
+
+    private static boolean isCacheable(OAuth2ClientAuthenticationToken clientAuthentication) {
+        ClientAuthenticationMethod method = clientAuthentication.getClientAuthenticationMethod();
+        if (!ClientAuthenticationMethod.CLIENT_SECRET_BASIC.equals(method)
+                && !ClientAuthenticationMethod.CLIENT_SECRET_POST.equals(method)) {
+            return false;
+        }
+        Object grantType = clientAuthentication.getAdditionalParameters().get(OAuth2ParameterNames.GRANT_TYPE);
+        return clientAuthentication.getCredentials() instanceof String
+                && !AuthorizationGrantType.AUTHORIZATION_CODE.getValue().equals(grantType);
+    }
+
+    private static boolean isStillValid(RegisteredClient registeredClient, VerifiedSecret verified,
+                                        ClientAuthenticationMethod method) {
+        if (registeredClient == null || registeredClient.getClientSecret() == null
+                || !registeredClient.getClientAuthenticationMethods().contains(method)) {
+            return false;
+        }
+        Instant secretExpiresAt = registeredClient.getClientSecretExpiresAt();
+        if (secretExpiresAt != null && Instant.now().isAfter(secretExpiresAt)) {
+            return false;
+        }
+        return MessageDigest.isEqual(verified.secretFingerprint(), fingerprint(registeredClient.getClientSecret()));
+    }
+
+    private String cacheKey(OAuth2ClientAuthenticationToken clientAuthentication) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(hmacKey);
+            byte[] hmac = mac.doFinal((clientAuthentication.getPrincipal() + ":" + clientAuthentication.getCredentials())
+                    .getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hmac);
+        }
+        catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static byte[] fingerprint(String encodedSecret) {
+        return TokenHashes.sha256(encodedSecret).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public record VerifiedSecret(String registeredClientId, byte[] secretFingerprint) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.oauth2.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * {@link JwtDecoder} que guarda o {@link Jwt} já verificado, indexado pelo SHA-256 do token,
+ * evitando repetir a verificação de assinatura para tokens reutilizados.
+ * Nenhuma entrada sobrevive ao {@code exp} do token; falhas de validação nunca são guardadas.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final Cache<String, Jwt> cache;
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maximumSize, Duration maximumTtl) {
+        Assert.notNull(delegate, "delegate cannot be null");
+        Assert.isTrue(!maximumTtl.isNegative() && !maximumTtl.isZero(), "maximumTtl must be positive");
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ExpiresAtExpiry(maximumTtl))
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = TokenHashes.sha256(token);
+        Jwt cached = cache.getIfPresent(key);
+        if (cached != null && isActive(cached)) {
+            return cached;
+        }
+
+        Jwt jwt = delegate.decode(token);
+        if (jwt.getExpiresAt() != null) {
+            cache.put(key, jwt);
+        }
+        return jwt;
+    }
+
+    public Cache<String, Jwt> getCache() {
+        return cache;
+    }
+
+    private static boolean isActive(Jwt jwt) {
+        return Instant.now().isBefore(jwt.getExpiresAt());
+    }
+
+    private static final class ExpiresAtExpiry implements Expiry<String, Jwt> {
+
+        private final long maximumTtlNanos;
+
+        private ExpiresAtExpiry(Duration maximumTtl) {
+            this.maximumTtlNanos = maximumTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+            long untilExpiry = Duration.between(Instant.now(), jwt.getExpiresAt()).toNanos();
+            return Math.max(0, Math.min(untilExpiry, maximumTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
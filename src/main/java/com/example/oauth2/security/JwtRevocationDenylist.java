@@ -0,0 +1,182 @@
+package com.example.oauth2.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.Assert;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@code jti}s revogados que ainda não expiraram.
+ * <p>
+ * A consulta passa primeiro por um filtro de Bloom: para a grande maioria dos tokens (não revogados)
+ * a resposta sai dele, sem tocar no mapa. Um acerto no filtro é confirmado no mapa exato, que guarda
+ * o {@code exp} de cada token. Como o filtro não permite remoção, ele é reconstruído a partir do mapa
+ * na limpeza periódica, já dimensionado para a quantidade de entradas vivas.
+ */
+public class JwtRevocationDenylist {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtRevocationDenylist.class);
+
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private final int expectedRevocations;
+    private final double falsePositiveProbability;
+    private final Counter falsePositives;
+    private final Counter rejections;
+
+    private volatile BloomFilter filter;
+
+    public JwtRevocationDenylist(int expectedRevocations, double falsePositiveProbability, MeterRegistry meterRegistry) {
+        Assert.isTrue(expectedRevocations > 0, "expectedRevocations must be greater than 0");
+        Assert.isTrue(falsePositiveProbability > 0 && falsePositiveProbability < 1,
+                "falsePositiveProbability must be between 0 and 1");
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveProbability);
+
+        Gauge.builder("oauth2.revocation.denylist.size", revoked, Map::size)
+                .description("Revoked tokens that have not expired yet")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("oauth2.revocation.denylist.false-positives")
+                .description("Bloom filter hits not confirmed by the exact set")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("oauth2.revocation.denylist.rejections")
+                .description("Tokens rejected because they were revoked")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onTokenRevoked(OAuth2TokenRevokedEvent event) {
+        revoke(event.getTokenId(), event.getExpiresAt());
+    }
+
+    // Sincronizado com a reconstrução para que nenhuma revogação fique fora do filtro novo
+    public synchronized void revoke(String tokenId, Instant expiresAt) {
+        if (expiresAt != null && !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        revoked.put(tokenId, expiresAt != null ? expiresAt : Instant.MAX);
+        if (revoked.size() > filter.capacity()) {
+            rebuild();
+        }
+        else {
+            filter.put(tokenId);
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (!filter.mightContain(tokenId)) {
+            return false;
+        }
+        Instant expiresAt = revoked.get(tokenId);
+        if (expiresAt == null) {
+            falsePositives.increment();
+            return false;
+        }
+        if (!expiresAt.isAfter(Instant.now())) {
+            return false;
+        }
+        rejections.increment();
+        return true;
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.revocation.cleanup-interval:PT1M}")
+    public synchronized void removeExpired() {
+        Instant now = Instant.now();
+        if (revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now))) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, revoked.size() * 2), falsePositiveProbability);
+        revoked.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+        logger.debug("Revocation filter rebuilt for {} tokens ({} bits)", revoked.size(), rebuilt.bitCount());
+    }
+
+    /**
+     * Filtro de Bloom com double hashing sobre um hash de 64 bits do {@code jti}.
+     */
+    private static final class BloomFilter {
+
+        private final int capacity;
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashFunctions;
+
+        private BloomFilter(int capacity, double falsePositiveProbability) {
+            long bits = (long) Math.ceil(-capacity * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+            this.capacity = capacity;
+            this.words = new AtomicLongArray((int) ((bits + 63) >>> 6));
+            this.bitCount = words.length() * 64L;
+            this.hashFunctions = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+        }
+
+        int capacity() {
+            return capacity;
+        }
+
+        long bitCount() {
+            return bitCount;
+        }
+
+        void put(String value) {
+            long hash1 = hash(value);
+            long hash2 = mix(hash1) | 1;
+            for (int i = 0; i < hashFunctions; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = words.get(word);
+                }
+                while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash1 = hash(value);
+            long hash2 = mix(hash1) | 1;
+            for (int i = 0; i < hashFunctions; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // FNV-1a 64 bits seguido do finalizador do MurmurHash3
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return mix(hash);
+        }
+
+        private static long mix(long hash) {
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
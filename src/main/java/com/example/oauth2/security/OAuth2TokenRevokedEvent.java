@@ -0,0 +1,32 @@
+package com.example.oauth2.security;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.time.Instant;
+
+/**
+ * Publicado quando um access token JWT é invalidado pelo authorization server
+ * (revogação explícita, revogação do refresh token ou reuso do authorization code).
+ */
+public class OAuth2TokenRevokedEvent extends ApplicationEvent {
+
+    private final String tokenId;
+    private final Instant expiresAt;
+
+    public OAuth2TokenRevokedEvent(Object source, String tokenId, Instant expiresAt) {
+        super(source);
+        this.tokenId = tokenId;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Claim {@code jti} do token revogado.
+     */
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
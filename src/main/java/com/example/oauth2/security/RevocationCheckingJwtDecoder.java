@@ -0,0 +1,32 @@
+package com.example.oauth2.security;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.util.Assert;
+
+/**
+ * {@link JwtDecoder} que recusa tokens cujo {@code jti} está no {@link JwtRevocationDenylist}.
+ * Fica por fora do {@link CachingJwtDecoder}, então um token revogado é recusado mesmo se já estiver em cache.
+ */
+public class RevocationCheckingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final JwtRevocationDenylist denylist;
+
+    public RevocationCheckingJwtDecoder(JwtDecoder delegate, JwtRevocationDenylist denylist) {
+        Assert.notNull(delegate, "delegate cannot be null");
+        Assert.notNull(denylist, "denylist cannot be null");
+        this.delegate = delegate;
+        this.denylist = denylist;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        Jwt jwt = delegate.decode(token);
+        if (jwt.getId() != null && denylist.isRevoked(jwt.getId())) {
+            throw new RevokedJwtException("The token has been revoked");
+        }
+        return jwt;
+    }
+}
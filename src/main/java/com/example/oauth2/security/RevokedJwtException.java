@@ -0,0 +1,13 @@
+package com.example.oauth2.security;
+
+import org.springframework.security.oauth2.jwt.BadJwtException;
+
+/**
+ * Token válido cujo {@code jti} está no {@link JwtRevocationDenylist}.
+ */
+public class RevokedJwtException extends BadJwtException {
+
+    public RevokedJwtException(String message) {
+        super(message);
+    }
+}
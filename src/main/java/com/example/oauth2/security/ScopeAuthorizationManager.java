@@ -0,0 +1,107 @@
+package com.example.oauth2.security;
+
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Equivalente a {@code hasAuthority}/{@code hasAnyAuthority} para scopes: com um
+ * {@link ScopeJwtAuthenticationToken} a verificação é um AND entre os bits do token e os exigidos.
+ * Outras autenticações (ou scopes sem bit em {@link ScopeBits}) são verificadas pelo nome das authorities.
+ * <p>
+ * As instâncias são imutáveis e compartilhadas por conjunto de scopes; também são usadas pelo
+ * {@link ScopeSecurityExpressionRoot} em {@code @PreAuthorize("hasScope('read')")}.
+ */
+public final class ScopeAuthorizationManager<T> implements AuthorizationManager<T> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+    private static final ConcurrentMap<Set<String>, ScopeAuthorizationManager<?>> INSTANCES = new ConcurrentHashMap<>();
+    // Atalho sem alocação para o caso comum de um único scope (hasScope a cada chamada de @PreAuthorize)
+    private static final ConcurrentMap<String, ScopeAuthorizationManager<?>> SINGLE_SCOPE = new ConcurrentHashMap<>();
+
+    private final Set<String> scopes;
+    private final long mask;
+    private final boolean allScopesIndexed;
+
+    private ScopeAuthorizationManager(Set<String> scopes) {
+        long mask = 0;
+        boolean allScopesIndexed = true;
+        for (String scope : scopes) {
+            long bit = ScopeBits.bit(scope);
+            mask |= bit;
+            allScopesIndexed &= bit != 0;
+        }
+        this.scopes = scopes;
+        this.mask = mask;
+        this.allScopesIndexed = allScopesIndexed;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> ScopeAuthorizationManager<T> hasScope(String scope) {
+        ScopeAuthorizationManager<?> manager = SINGLE_SCOPE.get(scope);
+        if (manager == null) {
+            manager = SINGLE_SCOPE.computeIfAbsent(scope, ScopeAuthorizationManager::hasAnyScope);
+        }
+        return (ScopeAuthorizationManager<T>) manager;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> ScopeAuthorizationManager<T> hasAnyScope(String... scopes) {
+        Assert.notEmpty(scopes, "scopes cannot be empty");
+        Assert.noNullElements(scopes, "scopes cannot contain null values");
+        return (ScopeAuthorizationManager<T>) INSTANCES.computeIfAbsent(Set.copyOf(Arrays.asList(scopes)),
+                ScopeAuthorizationManager::new);
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, T object) {
+        return isGranted(authentication.get()) ? GRANTED : DENIED;
+    }
+
+    /**
+     * A mesma regra para o {@code authorizeExchange} do WebFlux.
+     */
+    public ReactiveAuthorizationManager<T> reactive() {
+        return (authentication, object) -> authentication
+                .map(this::isGranted)
+                .defaultIfEmpty(false)
+                .map(granted -> granted ? GRANTED : DENIED);
+    }
+
+    public boolean isGranted(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        if (authentication instanceof ScopeJwtAuthenticationToken token) {
+            if ((token.getScopeBits() & mask) != 0) {
+                return true;
+            }
+            // Sem bit para algum scope o AND não é conclusivo
+            if (allScopesIndexed && token.isAllScopesIndexed()) {
+                return false;
+            }
+        }
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (scopes.contains(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "ScopeAuthorizationManager[scopes=" + scopes + "]";
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.oauth2.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Atribui a cada scope um bit de um {@code long}, na ordem em que aparecem (no máximo 64).
+ * Os scopes vêm de tokens assinados pelo próprio authorization server, então o conjunto é pequeno;
+ * a partir do 65º scope {@link #bit(String)} devolve 0 e as verificações voltam à comparação por nome.
+ */
+public final class ScopeBits {
+
+    private static final int NO_BIT = -1;
+    private static final ConcurrentMap<String, Integer> INDEXES = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_INDEX = new AtomicInteger();
+
+    private ScopeBits() {
+    }
+
+    /**
+     * Máscara com o bit do scope, ou 0 se não há mais bits livres.
+     */
+    public static long bit(String scope) {
+        int index = INDEXES.computeIfAbsent(scope, s -> {
+            int next = NEXT_INDEX.getAndIncrement();
+            return next < Long.SIZE ? next : NO_BIT;
+        });
+        return index == NO_BIT ? 0L : 1L << index;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.oauth2.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Converte o {@link Jwt} em {@link ScopeJwtAuthenticationToken}, com cada scope do claim como authority
+ * sem prefixo ({@code read}, {@code write}), que é o que o {@link ScopeAuthorizationManager} compara.
+ * <p>
+ * As authorities e os bits são montados uma vez por valor distinto do claim e reaproveitados: o número de
+ * combinações de scopes emitidas pelo authorization server é pequeno, e o cache é limitado a
+ * {@code maximumSize} combinações.
+ */
+public class ScopeJwtAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    private final String authoritiesClaimName;
+    private final Cache<Object, ScopeAuthorities> cache;
+
+    public ScopeJwtAuthenticationConverter(String authoritiesClaimName, long maximumSize) {
+        Assert.hasText(authoritiesClaimName, "authoritiesClaimName cannot be empty");
+        this.authoritiesClaimName = authoritiesClaimName;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        Object claim = jwt.getClaims().get(authoritiesClaimName);
+        ScopeAuthorities scopeAuthorities = claim != null
+                ? cache.get(claim, this::toScopeAuthorities)
+                : ScopeAuthorities.EMPTY;
+        return new ScopeJwtAuthenticationToken(jwt, scopeAuthorities.authorities(),
+                jwt.getClaimAsString(JwtClaimNames.SUB), scopeAuthorities.bits(), scopeAuthorities.allIndexed());
+    }
+
+    public Cache<Object, ScopeAuthorities> getCache() {
+        return cache;
+    }
+
+    private ScopeAuthorities toScopeAuthorities(Object claim) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        long bits = 0;
+        boolean allIndexed = true;
+        for (String scope : scopes(claim)) {
+            authorities.add(new SimpleGrantedAuthority(scope));
+            long bit = ScopeBits.bit(scope);
+            bits |= bit;
+            allIndexed &= bit != 0;
+        }
+        return new ScopeAuthorities(List.copyOf(authorities), bits, allIndexed);
+    }
+
+    // Mesmos formatos aceitos pelo JwtGrantedAuthoritiesConverter: string separada por espaços ou lista
+    private static Collection<String> scopes(Object claim) {
+        if (claim instanceof String value) {
+            return StringUtils.hasText(value) ? List.of(value.trim().split("\\s+")) : List.of();
+        }
+        if (claim instanceof Collection<?> values) {
+            List<String> scopes = new ArrayList<>(values.size());
+            for (Object value : values) {
+                scopes.add(value.toString());
+            }
+            return scopes;
+        }
+        return List.of();
+    }
+
+    private record ScopeAuthorities(List<GrantedAuthority> authorities, long bits, boolean allIndexed) {
+
+        static final ScopeAuthorities EMPTY = new ScopeAuthorities(List.of(), 0L, true);
+    }
+}
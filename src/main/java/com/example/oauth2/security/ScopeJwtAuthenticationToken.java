@@ -0,0 +1,37 @@
+package com.example.oauth2.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Collection;
+
+/**
+ * {@link JwtAuthenticationToken} que também carrega os scopes do token como bits de {@link ScopeBits},
+ * usados pelo {@link ScopeAuthorizationManager} no lugar de percorrer as authorities.
+ */
+public class ScopeJwtAuthenticationToken extends JwtAuthenticationToken {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long scopeBits;
+    private final boolean allScopesIndexed;
+
+    public ScopeJwtAuthenticationToken(Jwt jwt, Collection<? extends GrantedAuthority> authorities, String name,
+                                       long scopeBits, boolean allScopesIndexed) {
+        super(jwt, authorities, name);
+        this.scopeBits = scopeBits;
+        this.allScopesIndexed = allScopesIndexed;
+    }
+
+    public long getScopeBits() {
+        return scopeBits;
+    }
+
+    /**
+     * {@code false} se algum scope do token ficou sem bit: um bit ausente não prova que o scope falta.
+     */
+    public boolean isAllScopesIndexed() {
+        return allScopesIndexed;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.oauth2.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Supplier;
+
+/**
+ * {@link DefaultMethodSecurityExpressionHandler} que usa o {@link ScopeSecurityExpressionRoot}, habilitando
+ * {@code hasScope}/{@code hasAnyScope} em {@code @PreAuthorize}.
+ */
+public class ScopeMethodSecurityExpressionHandler extends DefaultMethodSecurityExpressionHandler {
+
+    private static final AuthenticationTrustResolver TRUST_RESOLVER = new AuthenticationTrustResolverImpl();
+
+    @Override
+    public EvaluationContext createEvaluationContext(Supplier<Authentication> authentication, MethodInvocation mi) {
+        // O contexto da classe base resolve os parâmetros do método (#nome); só a raiz é trocada
+        StandardEvaluationContext context = (StandardEvaluationContext) super.createEvaluationContext(authentication, mi);
+        ScopeSecurityExpressionRoot root = new ScopeSecurityExpressionRoot(authentication);
+        root.setThis(mi.getThis());
+        root.setPermissionEvaluator(getPermissionEvaluator());
+        root.setTrustResolver(TRUST_RESOLVER);
+        root.setRoleHierarchy(getRoleHierarchy());
+        root.setDefaultRolePrefix(getDefaultRolePrefix());
+        context.setRootObject(root);
+        return context;
+    }
+}
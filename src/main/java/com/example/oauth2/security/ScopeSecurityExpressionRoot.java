@@ -0,0 +1,60 @@
+package com.example.oauth2.security;
+
+import org.springframework.security.access.expression.SecurityExpressionRoot;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Supplier;
+
+/**
+ * Raiz das expressões de {@code @PreAuthorize} com {@code hasScope('read')} e
+ * {@code hasAnyScope('read', 'write')}, verificadas pelo {@link ScopeAuthorizationManager}.
+ * {@code hasAuthority} continua disponível, mas é {@code final} na classe base e percorre as authorities.
+ */
+public class ScopeSecurityExpressionRoot extends SecurityExpressionRoot implements MethodSecurityExpressionOperations {
+
+    private Object filterObject;
+    private Object returnObject;
+    private Object target;
+
+    public ScopeSecurityExpressionRoot(Supplier<Authentication> authentication) {
+        super(authentication);
+    }
+
+    public boolean hasScope(String scope) {
+        return ScopeAuthorizationManager.hasScope(scope).isGranted(getAuthentication());
+    }
+
+    public boolean hasAnyScope(String... scopes) {
+        return ScopeAuthorizationManager.hasAnyScope(scopes).isGranted(getAuthentication());
+    }
+
+    @Override
+    public void setFilterObject(Object filterObject) {
+        this.filterObject = filterObject;
+    }
+
+    @Override
+    public Object getFilterObject() {
+        return filterObject;
+    }
+
+    @Override
+    public void setReturnObject(Object returnObject) {
+        this.returnObject = returnObject;
+    }
+
+    @Override
+    public Object getReturnObject() {
+        return returnObject;
+    }
+
+    void setThis(Object target) {
+        this.target = target;
+    }
+
+    @Override
+    public Object getThis() {
+        return target;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.oauth2.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.security.web.SecurityFilterChain;
+
+/**
+ * Troca cada bean {@link SecurityFilterChain} por um {@link TimedSecurityFilterChain} com o nome do bean,
+ * antes de o {@code FilterChainProxy} ser montado.
+ */
+public class SecurityFilterChainMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public SecurityFilterChainMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof SecurityFilterChain chain && !(bean instanceof TimedSecurityFilterChain)) {
+            return new TimedSecurityFilterChain(beanName, chain, meterRegistry.getObject());
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.oauth2.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fonte de chaves de assinatura persistida em arquivo, com rotação.
+ * <ul>
+ *     <li>{@code ACTIVE}: assina os tokens emitidos;</li>
+ *     <li>{@code NEXT}: já publicada no JWKS, assume quando a ativa completa {@code rotationInterval};</li>
+ *     <li>{@code RETIRED}: mantida apenas para verificação por {@code retiredKeyRetention}.</li>
+ * </ul>
+ * Somente o primeiro boot (sem arquivo) gera uma chave no caminho de inicialização;
+ * as demais são geradas pela rotação agendada.
+ */
+public class SigningKeyManager implements JWKSource<SecurityContext> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SigningKeyManager.class);
+
+    private final Path keyStorePath;
+    private final SignatureAlgorithm algorithm;
+    private final Duration rotationInterval;
+    private final Duration retiredKeyRetention;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private volatile KeyRing keyRing;
+
+    public SigningKeyManager(Path keyStorePath, SignatureAlgorithm algorithm,
+                             Duration rotationInterval, Duration retiredKeyRetention) {
+        Assert.notNull(keyStorePath, "keyStorePath cannot be null");
+        Assert.notNull(algorithm, "algorithm cannot be null");
+        this.keyStorePath = keyStorePath;
+        this.algorithm = algorithm;
+        this.rotationInterval = rotationInterval;
+        this.retiredKeyRetention = retiredKeyRetention;
+        this.keyRing = load();
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) {
+        return jwkSelector.select(keyRing.jwkSet());
+    }
+
+    public JWK getActiveKey() {
+        return keyRing.active().jwk();
+    }
+
+    /**
+     * JWKS publicado, somente com as partes públicas. A instância só muda quando o conjunto de chaves muda,
+     * então pode ser usada para detectar rotações.
+     */
+    public JWKSet getPublicJwkSet() {
+        return keyRing.publicJwkSet();
+    }
+
+    /**
+     * Próximo instante em que o JWKS deve mudar: troca da chave ativa ou descarte de uma aposentada.
+     * Sem chave {@code NEXT} publicada a mudança é imediata (próxima execução de {@link #rotateIfNecessary()}).
+     */
+    public Instant getNextKeyChange() {
+        KeyRing current = keyRing;
+        if (current.next() == null) {
+            return Instant.now();
+        }
+        Instant nextChange = current.active().activatedAt().plus(rotationInterval);
+        for (StoredKey key : current.retired()) {
+            Instant discardAt = key.retiredAt().plus(retiredKeyRetention);
+            if (discardAt.isBefore(nextChange)) {
+                nextChange = discardAt;
+            }
+        }
+        return nextChange;
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwk.rotation-check-interval:PT1H}")
+    public synchronized void rotateIfNecessary() {
+        Instant now = Instant.now();
+        KeyRing current = keyRing;
+        StoredKey active = current.active();
+        StoredKey next = current.next();
+        List<StoredKey> retired = new ArrayList<>(current.retired());
+        boolean changed = false;
+
+        if (next != null && !now.isBefore(active.activatedAt().plus(rotationInterval))) {
+            retired.add(new StoredKey(KeyState.RETIRED, active.jwk(), active.activatedAt(), now));
+            active = new StoredKey(KeyState.ACTIVE, next.jwk(), now, null);
+            next = null;
+            changed = true;
+            logger.info("Signing key rotated, active kid={}", active.jwk().getKeyID());
+        }
+        if (next == null) {
+            next = new StoredKey(KeyState.NEXT, SigningKeys.generate(algorithm), null, null);
+            changed = true;
+            logger.info("Next signing key published, kid={}", next.jwk().getKeyID());
+        }
+        changed |= retired.removeIf(key -> !now.isBefore(key.retiredAt().plus(retiredKeyRetention)));
+
+        if (changed) {
+            KeyRing updated = new KeyRing(active, next, retired);
+            store(updated);
+            keyRing = updated;
+        }
+    }
+
+    private KeyRing load() {
+        if (Files.exists(keyStorePath)) {
+            try {
+                StoredKeys stored = objectMapper.readValue(keyStorePath.toFile(), StoredKeys.class);
+                KeyRing loaded = KeyRing.of(stored.keys().stream().map(StoredKey::from).toList());
+                logger.info("Loaded {} signing keys from {}", loaded.jwkSet().size(), keyStorePath);
+                return loaded;
+            }
+            catch (IOException ex) {
+                throw new UncheckedIOException("Unable to read signing keys from " + keyStorePath, ex);
+            }
+        }
+        // Primeiro boot: a chave ativa precisa existir antes de emitir qualquer token
+        KeyRing initial = new KeyRing(
+                new StoredKey(KeyState.ACTIVE, SigningKeys.generate(algorithm), Instant.now(), null), null, List.of());
+        store(initial);
+        return initial;
+    }
+
+    private void store(KeyRing ring) {
+        List<Map<String, Object>> keys = new ArrayList<>();
+        ring.all().forEach(key -> keys.add(key.toMap()));
+        try {
+            Path directory = keyStorePath.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "signing-keys", ".tmp");
+            try {
+                Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-------"));
+            }
+            catch (UnsupportedOperationException ex) {
+                // Sistema de arquivos sem permissões POSIX
+            }
+            objectMapper.writeValue(temp.toFile(), Map.of("keys", keys));
+            try {
+                Files.move(temp, keyStorePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, keyStorePath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException("Unable to write signing keys to " + keyStorePath, ex);
+        }
+    }
+
+    enum KeyState {
+        ACTIVE, NEXT, RETIRED
+    }
+
+    record StoredKeys(List<Map<String, Object>> keys) {
+    }
+
+    record StoredKey(KeyState state, JWK jwk, Instant activatedAt, Instant retiredAt) {
+
+        @SuppressWarnings("unchecked")
+        static StoredKey from(Map<String, Object> map) {
+            try {
+                return new StoredKey(
+                        KeyState.valueOf((String) map.get("state")),
+                        JWK.parse((Map<String, Object>) map.get("jwk")),
+                        toInstant(map.get("activatedAt")),
+                        toInstant(map.get("retiredAt")));
+            }
+            catch (ParseException ex) {
+                throw new IllegalStateException("Invalid signing key entry", ex);
+            }
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("state", state.name());
+            map.put("activatedAt", activatedAt != null ? activatedAt.toEpochMilli() : null);
+            map.put("retiredAt", retiredAt != null ? retiredAt.toEpochMilli() : null);
+            map.put("jwk", jwk.toJSONObject());
+            return map;
+        }
+
+        private static Instant toInstant(Object epochMillis) {
+            return epochMillis != null ? Instant.ofEpochMilli(((Number) epochMillis).longValue()) : null;
+        }
+    }
+
+    static final class KeyRing {
+
+        private final StoredKey active;
+        private final StoredKey next;
+        private final List<StoredKey> retired;
+        private final JWKSet jwkSet;
+        private final JWKSet publicJwkSet;
+
+        KeyRing(StoredKey active, StoredKey next, List<StoredKey> retired) {
+            Assert.state(active != null, "Signing key store has no active key");
+            this.active = active;
+            this.next = next;
+            this.retired = List.copyOf(retired);
+            this.jwkSet = new JWKSet(all().stream().map(StoredKey::jwk).toList());
+            this.publicJwkSet = jwkSet.toPublicJWKSet();
+        }
+
+        static KeyRing of(List<StoredKey> keys) {
+            StoredKey active = null;
+            StoredKey next = null;
+            List<StoredKey> retired = new ArrayList<>();
+            for (StoredKey key : keys) {
+                switch (key.state()) {
+                    case ACTIVE -> active = key;
+                    case NEXT -> next = key;
+                    case RETIRED -> retired.add(key);
+                }
+            }
+            return new KeyRing(active, next, retired);
+        }
+
+        StoredKey active() {
+            return active;
+        }
+
+        StoredKey next() {
+            return next;
+        }
+
+        List<StoredKey> retired() {
+            return retired;
+        }
+
+        JWKSet jwkSet() {
+            return jwkSet;
+        }
+
+        JWKSet publicJwkSet() {
+            return publicJwkSet;
+        }
+
+        List<StoredKey> all() {
+            List<StoredKey> all = new ArrayList<>();
+            all.add(active);
+            if (next != null) {
+                all.add(next);
+            }
+            all.addAll(retired);
+            return all;
+        }
+    }
+}
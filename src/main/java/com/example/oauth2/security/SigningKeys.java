@@ -0,0 +1,49 @@
+package com.example.oauth2.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+
+import java.util.UUID;
+
+/**
+ * Gera chaves de assinatura para o algoritmo JWS configurado em {@code app.jwk.algorithm}.
+ * Famílias suportadas: RSA (RS*, PS*, 2048 bits) e EC (ES256/ES384/ES512).
+ */
+public final class SigningKeys {
+
+    private static final int RSA_KEY_SIZE = 2048;
+
+    private SigningKeys() {
+    }
+
+    public static JWK generate(SignatureAlgorithm algorithm) {
+        JWSAlgorithm jwsAlgorithm = JWSAlgorithm.parse(algorithm.getName());
+        String keyId = UUID.randomUUID().toString();
+        try {
+            if (JWSAlgorithm.Family.RSA.contains(jwsAlgorithm)) {
+                return new RSAKeyGenerator(RSA_KEY_SIZE)
+                        .keyUse(KeyUse.SIGNATURE)
+                        .algorithm(jwsAlgorithm)
+                        .keyID(keyId)
+                        .generate();
+            }
+            if (JWSAlgorithm.Family.EC.contains(jwsAlgorithm)) {
+                return new ECKeyGenerator(Curve.forJWSAlgorithm(jwsAlgorithm).iterator().next())
+                        .keyUse(KeyUse.SIGNATURE)
+                        .algorithm(jwsAlgorithm)
+                        .keyID(keyId)
+                        .generate();
+            }
+        }
+        catch (JOSEException ex) {
+            throw new IllegalStateException(ex);
+        }
+        throw new IllegalArgumentException("Unsupported signing algorithm: " + algorithm.getName());
+    }
+}
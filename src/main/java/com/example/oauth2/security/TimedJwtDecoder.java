@@ -0,0 +1,94 @@
+package com.example.oauth2.security;
+
+import com.nimbusds.jose.proc.BadJOSEException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.util.Assert;
+
+import java.text.ParseException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JwtDecoder} que mede a decodificação e verificação dos bearer tokens no resource server
+ * ({@code oauth2.jwt.decode}), com o resultado como tag: {@code valid} ou o motivo da recusa.
+ * Fica por fora dos demais decoders, então inclui acertos do {@link CachingJwtDecoder} e tokens revogados.
+ */
+public class TimedJwtDecoder implements JwtDecoder {
+
+    enum Result {
+        VALID, EXPIRED, NOT_YET_VALID, INVALID_CLAIMS, REVOKED, INVALID_SIGNATURE, MALFORMED, ERROR;
+
+        String tagValue() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final JwtDecoder delegate;
+    private final Map<Result, Timer> timers = new EnumMap<>(Result.class);
+
+    public TimedJwtDecoder(JwtDecoder delegate, MeterRegistry meterRegistry) {
+        Assert.notNull(delegate, "delegate cannot be null");
+        this.delegate = delegate;
+        for (Result result : Result.values()) {
+            timers.put(result, Timer.builder("oauth2.jwt.decode")
+                    .description("Bearer token decoding and verification time")
+                    .tag("result", result.tagValue())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        long start = System.nanoTime();
+        Result result = Result.ERROR;
+        try {
+            Jwt jwt = delegate.decode(token);
+            result = Result.VALID;
+            return jwt;
+        }
+        catch (JwtException ex) {
+            result = classify(ex);
+            throw ex;
+        }
+        finally {
+            timers.get(result).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    static Result classify(JwtException ex) {
+        if (ex instanceof RevokedJwtException) {
+            return Result.REVOKED;
+        }
+        if (ex instanceof JwtValidationException validation) {
+            // Descrições do JwtTimestampValidator; os demais validadores tratam de claims (iss, aud...)
+            for (OAuth2Error error : validation.getErrors()) {
+                String description = error.getDescription();
+                if (description != null && description.startsWith("Jwt expired")) {
+                    return Result.EXPIRED;
+                }
+                if (description != null && description.startsWith("Jwt used before")) {
+                    return Result.NOT_YET_VALID;
+                }
+            }
+            return Result.INVALID_CLAIMS;
+        }
+        if (ex instanceof BadJwtException) {
+            if (ex.getCause() instanceof ParseException) {
+                return Result.MALFORMED;
+            }
+            // Assinatura inválida, algoritmo inesperado ou kid sem chave no JWKS
+            return ex.getCause() instanceof BadJOSEException ? Result.INVALID_SIGNATURE : Result.MALFORMED;
+        }
+        // JWKS indisponível ou falha do JOSE
+        return Result.ERROR;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.oauth2.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.oauth2.jose.jws.JwsAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JwtEncoder} que mede a assinatura dos tokens emitidos ({@code oauth2.jwt.encode}), por algoritmo
+ * e resultado.
+ */
+public class TimedJwtEncoder implements JwtEncoder {
+
+    private final JwtEncoder delegate;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public TimedJwtEncoder(JwtEncoder delegate, MeterRegistry meterRegistry) {
+        Assert.notNull(delegate, "delegate cannot be null");
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Jwt encode(JwtEncoderParameters parameters) throws JwtEncodingException {
+        JwsAlgorithm algorithm = parameters.getJwsHeader() != null ? parameters.getJwsHeader().getAlgorithm() : null;
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Jwt jwt = delegate.encode(parameters);
+            success = true;
+            return jwt;
+        }
+        finally {
+            timer(algorithm != null ? algorithm.getName() : "default", success)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Os algoritmos JWS são um conjunto fechado, então a cardinalidade é limitada
+    private Timer timer(String algorithm, boolean success) {
+        return timers.computeIfAbsent(algorithm + (success ? "" : "/error"), key -> Timer.builder("oauth2.jwt.encode")
+                .description("JWT signing time")
+                .tag("algorithm", algorithm)
+                .tag("outcome", success ? "success" : "error")
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.oauth2.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SecurityFilterChain} que mede o próprio tempo, para ver onde a requisição gasta tempo nas cadeias
+ * de segurança:
+ * <ul>
+ *   <li>{@code security.filterchain.match}: avaliação do {@code securityMatcher} pelo {@code FilterChainProxy},
+ *   por cadeia e resultado</li>
+ *   <li>{@code security.filterchain}: tempo total nos filtros da cadeia, sem o que vem depois dela
+ *   (servlet, controller)</li>
+ *   <li>{@code security.filterchain.filter}: tempo de cada filtro, sem os filtros seguintes</li>
+ * </ul>
+ * As tags são o nome do bean da cadeia e a classe do filtro, ambos fixos. Por requisição há uma alocação
+ * e duas leituras de {@code System.nanoTime()} por filtro.
+ */
+public class TimedSecurityFilterChain implements SecurityFilterChain {
+
+    private final SecurityFilterChain delegate;
+    private final String attributeName;
+    private final Timer matched;
+    private final Timer notMatched;
+    private final Timer chainTimer;
+    private final List<Filter> filters;
+
+    public TimedSecurityFilterChain(String chainName, SecurityFilterChain delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.attributeName = TimedSecurityFilterChain.class.getName() + "." + chainName;
+        this.matched = matchTimer(meterRegistry, chainName, true);
+        this.notMatched = matchTimer(meterRegistry, chainName, false);
+        this.chainTimer = Timer.builder("security.filterchain")
+                .description("Time spent in the chain filters, excluding the servlet")
+                .tag("chain", chainName)
+                .register(meterRegistry);
+
+        List<Filter> delegateFilters = delegate.getFilters();
+        List<Filter> filters = new ArrayList<>(delegateFilters.size() + 1);
+        for (int i = 0; i < delegateFilters.size(); i++) {
+            Filter filter = delegateFilters.get(i);
+            Timer timer = Timer.builder("security.filterchain.filter")
+                    .description("Time spent in each filter, excluding the filters after it")
+                    .tag("chain", chainName)
+                    .tag("filter", ClassUtils.getShortName(ClassUtils.getUserClass(filter)))
+                    .register(meterRegistry);
+            filters.add(new TimedFilter(filter, timer, i == 0));
+        }
+        // Marca a saída da cadeia: o que ela chama é o restante da requisição
+        filters.add(new ExitFilter());
+        this.filters = Collections.unmodifiableList(filters);
+    }
+
+    private static Timer matchTimer(MeterRegistry meterRegistry, String chainName, boolean matched) {
+        return Timer.builder("security.filterchain.match")
+                .description("Evaluation of the chain securityMatcher")
+                .tag("chain", chainName)
+                .tag("matched", Boolean.toString(matched))
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean matches(HttpServletRequest request) {
+        long start = System.nanoTime();
+        boolean matches = delegate.matches(request);
+        (matches ? matched : notMatched).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return matches;
+    }
+
+    @Override
+    public List<Filter> getFilters() {
+        return filters;
+    }
+
+    public SecurityFilterChain getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String toString() {
+        return "TimedSecurityFilterChain[" + delegate + "]";
+    }
+
+    /**
+     * Estado da passagem de uma requisição pela cadeia: o tempo total do filtro seguinte, que cada filtro
+     * desconta do seu, e o tempo depois da cadeia, que o primeiro filtro desconta do total.
+     */
+    private static final class Pass {
+
+        long downstreamNanos;
+        long servletNanos;
+    }
+
+    private final class TimedFilter implements Filter {
+
+        private final Filter delegate;
+        private final Timer timer;
+        private final boolean first;
+
+        TimedFilter(Filter delegate, Timer timer, boolean first) {
+            this.delegate = delegate;
+            this.timer = timer;
+            this.first = first;
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+                throws IOException, ServletException {
+            Object previous = null;
+            Pass pass;
+            if (first) {
+                // Um forward pode passar pela cadeia de novo dentro da mesma requisição
+                previous = request.getAttribute(attributeName);
+                pass = new Pass();
+                request.setAttribute(attributeName, pass);
+            }
+            else if (request.getAttribute(attributeName) instanceof Pass current) {
+                pass = current;
+            }
+            else {
+                delegate.doFilter(request, response, chain);
+                return;
+            }
+
+            pass.downstreamNanos = 0;
+            long start = System.nanoTime();
+            try {
+                delegate.doFilter(request, response, chain);
+            }
+            finally {
+                long elapsed = System.nanoTime() - start;
+                timer.record(elapsed - pass.downstreamNanos, TimeUnit.NANOSECONDS);
+                if (first) {
+                    chainTimer.record(elapsed - pass.servletNanos, TimeUnit.NANOSECONDS);
+                    request.setAttribute(attributeName, previous);
+                }
+                pass.downstreamNanos = elapsed;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Timed" + delegate;
+        }
+    }
+
+    private final class ExitFilter implements Filter {
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+                throws IOException, ServletException {
+            if (!(request.getAttribute(attributeName) instanceof Pass pass)) {
+                chain.doFilter(request, response);
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                chain.doFilter(request, response);
+            }
+            finally {
+                pass.downstreamNanos = System.nanoTime() - start;
+                pass.servletNanos = pass.downstreamNanos;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "ExitFilter";
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.oauth2.service;
+
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2DeviceCode;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.core.OAuth2UserCode;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+
+import java.time.Instant;
+
+/**
+ * Valores pelos quais uma autorização pode ser buscada em
+ * {@link org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService#findByToken}.
+ */
+enum AuthorizationToken {
+
+    STATE(OAuth2ParameterNames.STATE, "state", null),
+    AUTHORIZATION_CODE(OAuth2ParameterNames.CODE, "authorization_code", OAuth2AuthorizationCode.class),
+    ACCESS_TOKEN(OAuth2TokenType.ACCESS_TOKEN.getValue(), "access_token", OAuth2AccessToken.class),
+    REFRESH_TOKEN(OAuth2TokenType.REFRESH_TOKEN.getValue(), "refresh_token", OAuth2RefreshToken.class),
+    ID_TOKEN(OidcParameterNames.ID_TOKEN, "oidc_id_token", OidcIdToken.class),
+    USER_CODE(OAuth2ParameterNames.USER_CODE, "user_code", OAuth2UserCode.class),
+    DEVICE_CODE(OAuth2ParameterNames.DEVICE_CODE, "device_code", OAuth2DeviceCode.class);
+
+    private final String tokenType;
+    private final String columnPrefix;
+    private final Class<? extends OAuth2Token> tokenClass;
+
+    AuthorizationToken(String tokenType, String columnPrefix, @Nullable Class<? extends OAuth2Token> tokenClass) {
+        this.tokenType = tokenType;
+        this.columnPrefix = columnPrefix;
+        this.tokenClass = tokenClass;
+    }
+
+    String columnPrefix() {
+        return columnPrefix;
+    }
+
+    @Nullable
+    String tokenValue(OAuth2Authorization authorization) {
+        if (tokenClass == null) {
+            return authorization.getAttribute(OAuth2ParameterNames.STATE);
+        }
+        OAuth2Authorization.Token<? extends OAuth2Token> token = authorization.getToken(tokenClass);
+        return token != null ? token.getToken().getTokenValue() : null;
+    }
+
+    /**
+     * Token correspondente na autorização; sempre {@code null} para {@link #STATE}, que é um atributo.
+     */
+    @Nullable
+    OAuth2Authorization.Token<? extends OAuth2Token> token(OAuth2Authorization authorization) {
+        return tokenClass != null ? authorization.getToken(tokenClass) : null;
+    }
+
+    @Nullable
+    static AuthorizationToken from(OAuth2TokenType tokenType) {
+        for (AuthorizationToken token : values()) {
+            if (token.tokenType.equals(tokenType.getValue())) {
+                return token;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Maior {@code expiresAt} entre os tokens da autorização, ou {@code null} se ela ainda não tem
+     * tokens (ex.: aguardando consentimento).
+     */
+    @Nullable
+    static Instant latestExpiry(OAuth2Authorization authorization) {
+        Instant latest = null;
+        for (AuthorizationToken token : values()) {
+            OAuth2Authorization.Token<? extends OAuth2Token> value = token.token(authorization);
+            Instant expiresAt = value != null ? value.getToken().getExpiresAt() : null;
+            if (expiresAt != null && (latest == null || expiresAt.isAfter(latest))) {
+                latest = expiresAt;
+            }
+        }
+        return latest;
+    }
+}
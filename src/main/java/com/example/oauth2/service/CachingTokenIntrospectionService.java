@@ -0,0 +1,167 @@
+package com.example.oauth2.service;
+
+import com.example.oauth2.security.JwtRevocationDenylist;
+import com.example.oauth2.security.OAuth2TokenRevokedEvent;
+import com.example.oauth2.security.TokenHashes;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenIntrospection;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenIntrospectionAuthenticationProvider;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenIntrospectionAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.util.Assert;
+
+import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Introspecção de vários tokens por chamada, com a mesma regra do endpoint {@code /oauth2/introspect}
+ * ({@link OAuth2TokenIntrospectionAuthenticationProvider}) e os resultados guardados por pouco tempo.
+ * <ul>
+ *     <li>Resultados ativos só são guardados para access tokens JWT (com {@code jti}) e nunca além do
+ *     {@code exp}; na revogação ({@link OAuth2TokenRevokedEvent}) a entrada é removida, e cada acerto ainda
+ *     consulta o {@link JwtRevocationDenylist}, cobrindo uma revogação que chegue durante a consulta.</li>
+ *     <li>Refresh tokens e tokens opacos ativos não são guardados: não há como invalidá-los pelo evento.</li>
+ *     <li>Resultados inativos são guardados pelo TTL máximo; um token inativo não volta a ser ativo.</li>
+ * </ul>
+ * As entradas são indexadas pelo SHA-256 do token, como no {@code CachingJwtDecoder}: o cache não guarda tokens.
+ */
+public class CachingTokenIntrospectionService {
+
+    private static final Map<String, Object> INACTIVE =
+            Map.of(OAuth2TokenIntrospectionClaimNames.ACTIVE, false);
+
+    private final OAuth2TokenIntrospectionAuthenticationProvider introspectionProvider;
+    private final JwtRevocationDenylist revocationDenylist;
+    private final Cache<String, IntrospectionResult> cache;
+
+    public CachingTokenIntrospectionService(RegisteredClientRepository registeredClientRepository,
+                                            OAuth2AuthorizationService authorizationService,
+                                            JwtRevocationDenylist revocationDenylist,
+                                            long maximumSize, Duration maximumTtl) {
+        Assert.notNull(revocationDenylist, "revocationDenylist cannot be null");
+        Assert.isTrue(!maximumTtl.isNegative() && !maximumTtl.isZero(), "maximumTtl must be positive");
+        this.introspectionProvider = new OAuth2TokenIntrospectionAuthenticationProvider(
+                registeredClientRepository, authorizationService);
+        this.revocationDenylist = revocationDenylist;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ExpiresAtExpiry(maximumTtl))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Resultados na ordem de {@code tokens}. {@code clientPrincipal} é o cliente autenticado que faz a consulta.
+     */
+    public List<Map<String, Object>> introspect(List<String> tokens, Authentication clientPrincipal) {
+        List<Map<String, Object>> results = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            results.add(introspect(token, clientPrincipal));
+        }
+        return results;
+    }
+
+    private Map<String, Object> introspect(String token, Authentication clientPrincipal) {
+        String key = TokenHashes.sha256(token);
+        IntrospectionResult cached = cache.getIfPresent(key);
+        if (cached != null && isUsable(cached)) {
+            return cached.claims();
+        }
+
+        OAuth2TokenIntrospectionAuthenticationToken authentication =
+                (OAuth2TokenIntrospectionAuthenticationToken) introspectionProvider.authenticate(
+                        new OAuth2TokenIntrospectionAuthenticationToken(token, clientPrincipal, null, Map.of()));
+        OAuth2TokenIntrospection tokenClaims = authentication.getTokenClaims();
+        if (!tokenClaims.isActive()) {
+            cache.put(key, new IntrospectionResult(INACTIVE, null, null));
+            return INACTIVE;
+        }
+        IntrospectionResult result = new IntrospectionResult(toResponseClaims(tokenClaims.getClaims()),
+                tokenClaims.getId(), tokenClaims.getExpiresAt());
+        if (result.tokenId() != null && result.expiresAt() != null && isUsable(result)) {
+            cache.put(key, result);
+        }
+        return result.claims();
+    }
+
+    private boolean isUsable(IntrospectionResult result) {
+        if (result.tokenId() == null) {
+            return true;
+        }
+        return Instant.now().isBefore(result.expiresAt()) && !revocationDenylist.isRevoked(result.tokenId());
+    }
+
+    @EventListener
+    public void onTokenRevoked(OAuth2TokenRevokedEvent event) {
+        // Revogações são raras; percorrer o cache evita um segundo índice por jti
+        cache.asMap().values().removeIf(result -> event.getTokenId().equals(result.tokenId()));
+    }
+
+    public Cache<String, IntrospectionResult> getCache() {
+        return cache;
+    }
+
+    // Mesmo formato da resposta de /oauth2/introspect: datas em segundos, scope separado por espaços
+    private static Map<String, Object> toResponseClaims(Map<String, Object> claims) {
+        Map<String, Object> response = new LinkedHashMap<>(claims.size());
+        claims.forEach((name, value) -> {
+            if (value instanceof Instant instant) {
+                value = instant.getEpochSecond();
+            }
+            else if (value instanceof URL url) {
+                value = url.toExternalForm();
+            }
+            else if (OAuth2TokenIntrospectionClaimNames.SCOPE.equals(name) && value instanceof Collection<?> scopes) {
+                value = String.join(" ", scopes.stream().map(Object::toString).toList());
+            }
+            response.put(name, value);
+        });
+        return Collections.unmodifiableMap(response);
+    }
+
+    public record IntrospectionResult(Map<String, Object> claims, String tokenId, Instant expiresAt) {
+    }
+
+    private static final class ExpiresAtExpiry implements Expiry<String, IntrospectionResult> {
+
+        private final long maximumTtlNanos;
+
+        private ExpiresAtExpiry(Duration maximumTtl) {
+            this.maximumTtlNanos = maximumTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, IntrospectionResult result, long currentTime) {
+            if (result.expiresAt() == null) {
+                return maximumTtlNanos;
+            }
+            long untilExpiry = Duration.between(Instant.now(), result.expiresAt()).toNanos();
+            return Math.max(0, Math.min(untilExpiry, maximumTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, IntrospectionResult result, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(key, result, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, IntrospectionResult result, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.oauth2.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Cache, do lado do cliente, das respostas de {@code /oauth2/token}, indexado por cliente (com o secret),
+ * grant type e scopes.
+ * <ul>
+ *     <li>Um token é reutilizado até {@code expires_in} menos {@code expirySkew};</li>
+ *     <li>dentro de {@code refreshAhead} antes desse limite, o primeiro acesso dispara uma renovação em
+ *     segundo plano e continua recebendo o token atual;</li>
+ *     <li>por chave há no máximo uma requisição em andamento: chamadas concorrentes sem token válido
+ *     (ex.: no início) esperam a mesma resposta.</li>
+ * </ul>
+ */
+public class ClientTokenManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClientTokenManager.class);
+
+    private final SecretKey hmacKey;
+    private final Cache<TokenKey, TokenSlot> slots;
+    private final Executor executor;
+    private final Duration expirySkew;
+    private final Duration refreshAhead;
+    private final Counter hits;
+    private final Counter blockingFetches;
+    private final Counter backgroundFetches;
+
+    public ClientTokenManager(Executor executor, long maximumSize, Duration expirySkew, Duration refreshAhead,
+                              MeterRegistry meterRegistry) {
+        Assert.notNull(executor, "executor cannot be null");
+        Assert.isTrue(!expirySkew.isNegative(), "expirySkew cannot be negative");
+        Assert.isTrue(!refreshAhead.isNegative(), "refreshAhead cannot be negative");
+        this.executor = executor;
+        this.expirySkew = expirySkew;
+        this.refreshAhead = refreshAhead;
+        try {
+            this.hmacKey = KeyGenerator.getInstance("HmacSHA256").generateKey();
+        }
+        catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+        this.slots = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+
+        this.hits = Counter.builder("oauth2.client.tokens.hits")
+                .description("Token requests answered with a cached token")
+                .register(meterRegistry);
+        this.blockingFetches = Counter.builder("oauth2.client.tokens.fetches")
+                .tag("mode", "blocking")
+                .description("Token endpoint requests made while the caller waits")
+                .register(meterRegistry);
+        this.backgroundFetches = Counter.builder("oauth2.client.tokens.fetches")
+                .tag("mode", "background")
+                .description("Token endpoint requests made ahead of expiry in the background")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Devolve a resposta de token em cache para {@code key} ou obtém uma nova com {@code tokenRequest}.
+     * O {@code expires_in} devolvido é o tempo restante do token. Falhas de {@code tokenRequest} são
+     * repassadas a todos que esperavam por ela e não ficam em cache.
+     */
+    public Map<String, Object> getToken(TokenKey key, Supplier<Map<String, Object>> tokenRequest) {
+        TokenSlot slot = slots.get(key, k -> new TokenSlot());
+        Instant now = Instant.now();
+        CachedToken cached = slot.token;
+        if (cached != null && now.isBefore(cached.usableUntil())) {
+            hits.increment();
+            if (!now.isBefore(cached.refreshAt())) {
+                slot.fetch(tokenRequest, true);
+            }
+            return cached.response(now);
+        }
+
+        try {
+            return slot.fetch(tokenRequest, false).join().response(Instant.now());
+        }
+        catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Chave do cache para um cliente, grant type e scopes. O secret entra apenas como HMAC com uma chave
+     * aleatória desta instância, junto com o {@code clientId}: um token nunca é devolvido a quem não
+     * apresentou o mesmo secret, e a chave em memória não serve para testar secrets fora do processo.
+     */
+    public TokenKey tokenKey(String clientId, String clientSecret, String grantType, String scope) {
+        Assert.hasText(clientId, "clientId cannot be empty");
+        Assert.hasText(grantType, "grantType cannot be empty");
+        String credentialsHash = hmac(clientId + ":" + (clientSecret != null ? clientSecret : ""));
+        Set<String> scopes = StringUtils.hasText(scope)
+                ? new TreeSet<>(Arrays.asList(scope.trim().split("\\s+")))
+                : Set.of();
+        return new TokenKey(clientId, credentialsHash, grantType, Set.copyOf(scopes));
+    }
+
+    private String hmac(String value) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(hmacKey);
+            byte[] hmac = mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hmac);
+        }
+        catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private CachedToken toCachedToken(Map<String, Object> response, Instant issuedAt) {
+        if (response == null) {
+            // Resposta sem corpo: falha para quem esperava, sem ir para o cache
+            throw new IllegalStateException("Token endpoint returned an empty response");
+        }
+        Object expiresIn = response.get(OAuth2ParameterNames.EXPIRES_IN);
+        if (!(expiresIn instanceof Number seconds)) {
+            // Sem expires_in não há como saber até quando reutilizar: vale só para quem esperava esta resposta
+            return new CachedToken(response, null, issuedAt, issuedAt);
+        }
+        Instant expiresAt = issuedAt.plusSeconds(seconds.longValue());
+        Instant usableUntil = expiresAt.minus(expirySkew);
+        Instant refreshAt = usableUntil.minus(refreshAhead);
+        return new CachedToken(response, expiresAt, usableUntil, refreshAt.isBefore(issuedAt) ? issuedAt : refreshAt);
+    }
+
+    /**
+     * Chave do cache, criada por {@link #tokenKey(String, String, String, String)}.
+     */
+    public record TokenKey(String clientId, String credentialsHash, String grantType, Set<String> scopes) {
+    }
+
+    private record CachedToken(Map<String, Object> response, Instant expiresAt, Instant usableUntil, Instant refreshAt) {
+
+        Map<String, Object> response(Instant now) {
+            if (expiresAt == null) {
+                return response;
+            }
+            Map<String, Object> copy = new LinkedHashMap<>(response);
+            copy.put(OAuth2ParameterNames.EXPIRES_IN, Math.max(0, Duration.between(now, expiresAt).toSeconds()));
+            return copy;
+        }
+    }
+
+    private final class TokenSlot {
+
+        private final AtomicReference<CompletableFuture<CachedToken>> inFlight = new AtomicReference<>();
+        private volatile CachedToken token;
+
+        CompletableFuture<CachedToken> fetch(Supplier<Map<String, Object>> tokenRequest, boolean background) {
+            CompletableFuture<CachedToken> created = new CompletableFuture<>();
+            while (true) {
+                CompletableFuture<CachedToken> current = inFlight.get();
+                if (current != null) {
+                    return current;
+                }
+                if (inFlight.compareAndSet(null, created)) {
+                    break;
+                }
+            }
+
+            Runnable task = () -> {
+                try {
+                    // A validade conta a partir do envio, não da resposta
+                    Instant requestedAt = Instant.now();
+                    CachedToken fetched = toCachedToken(tokenRequest.get(), requestedAt);
+                    if (fetched.expiresAt() != null) {
+                        token = fetched;
+                    }
+                    inFlight.set(null);
+                    created.complete(fetched);
+                }
+                catch (Throwable ex) {
+                    inFlight.set(null);
+                    created.completeExceptionally(ex);
+                }
+            };
+            if (!background) {
+                blockingFetches.increment();
+                task.run();
+                return created;
+            }
+
+            backgroundFetches.increment();
+            // Falha na renovação antecipada não afeta ninguém: o token atual continua valendo até usableUntil
+            created.whenComplete((fetched, ex) -> {
+                if (ex != null) {
+                    logger.warn("Background token refresh failed: {}", ex.getMessage());
+                }
+            });
+            try {
+                executor.execute(task);
+            }
+            catch (RejectedExecutionException ex) {
+                inFlight.set(null);
+                created.completeExceptionally(ex);
+            }
+            return created;
+        }
+    }
+}
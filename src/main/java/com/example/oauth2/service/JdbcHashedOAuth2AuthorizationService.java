@@ -0,0 +1,545 @@
+package com.example.oauth2.service;
+
+import com.example.oauth2.security.TokenHashes;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2DeviceCode;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.core.OAuth2UserCode;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.jackson2.OAuth2AuthorizationServerJackson2Module;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * {@link OAuth2AuthorizationService} persistido em {@code oauth2_authorizations}
+ * (ver {@code db/oauth2-authorizations-schema.sql}).
+ * <ul>
+ *     <li>Cada valor de token tem uma coluna {@code *_hash} indexada; as buscas nunca comparam o valor em si.</li>
+ *     <li>Gravações concorrentes são agrupadas: quem obtém o lock de escrita grava em lote, em uma transação,
+ *     tudo o que estiver na fila, e cada chamada só retorna depois que a própria autorização foi gravada. Se o
+ *     lote falhar, as autorizações são regravadas uma a uma, e só a chamada com a linha problemática recebe
+ *     o erro.</li>
+ *     <li>Linhas expiradas são apagadas em blocos de {@code purgeChunkSize}, um comando por bloco. O gauge
+ *     {@code oauth2.authorizations.size} (um {@code COUNT(*)} da tabela a cada limpeza) só existe com
+ *     {@code countRows}.</li>
+ * </ul>
+ */
+public class JdbcHashedOAuth2AuthorizationService implements OAuth2AuthorizationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcHashedOAuth2AuthorizationService.class);
+
+    private static final String TABLE_NAME = "oauth2_authorizations";
+    private static final List<String> DATA_COLUMNS = dataColumns();
+    private static final String COLUMN_NAMES = "id, " + String.join(", ", DATA_COLUMNS);
+
+    private static final String LOAD_SQL = "SELECT " + COLUMN_NAMES + " FROM " + TABLE_NAME + " WHERE ";
+    private static final String INSERT_SQL = "INSERT INTO " + TABLE_NAME + " (" + COLUMN_NAMES + ") VALUES ("
+            + String.join(", ", Collections.nCopies(DATA_COLUMNS.size() + 1, "?")) + ")";
+    private static final String UPDATE_SQL = "UPDATE " + TABLE_NAME + " SET "
+            + DATA_COLUMNS.stream().map(column -> column + " = ?").collect(Collectors.joining(", "))
+            + " WHERE id = ?";
+    private static final String REMOVE_SQL = "DELETE FROM " + TABLE_NAME + " WHERE id = ?";
+    private static final String ANY_TOKEN_FILTER = Arrays.stream(AuthorizationToken.values())
+            .map(token -> token.columnPrefix() + "_hash = ?")
+            .collect(Collectors.joining(" OR "));
+    private static final String SELECT_EXPIRED_SQL = "SELECT id FROM " + TABLE_NAME
+            + " WHERE expires_at < ? ORDER BY expires_at FETCH FIRST ? ROWS ONLY";
+    // Revalida a expiração: a linha pode ter sido renovada entre o SELECT e o DELETE
+    private static final String DELETE_EXPIRED_SQL = "DELETE FROM " + TABLE_NAME + " WHERE id = ? AND expires_at < ?";
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM " + TABLE_NAME;
+
+    private final JdbcOperations jdbcOperations;
+    private final TransactionTemplate transactionTemplate;
+    private final RegisteredClientRepository registeredClientRepository;
+    private final Duration pendingAuthorizationTtl;
+    private final int batchSize;
+    private final int purgeChunkSize;
+    private final boolean countRows;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RowMapper<OAuth2Authorization> rowMapper = this::mapRow;
+
+    private final ConcurrentLinkedQueue<PendingWrite> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final DistributionSummary batchSizes;
+    private final Counter purged;
+    // Atualizado a cada limpeza, para o gauge não consultar o banco a cada coleta
+    private final AtomicLong size = new AtomicLong();
+
+    public JdbcHashedOAuth2AuthorizationService(JdbcOperations jdbcOperations,
+                                                PlatformTransactionManager transactionManager,
+                                                RegisteredClientRepository registeredClientRepository,
+                                                Duration pendingAuthorizationTtl, int batchSize, int purgeChunkSize,
+                                                boolean countRows, MeterRegistry meterRegistry) {
+        Assert.notNull(jdbcOperations, "jdbcOperations cannot be null");
+        Assert.notNull(transactionManager, "transactionManager cannot be null");
+        Assert.notNull(registeredClientRepository, "registeredClientRepository cannot be null");
+        Assert.isTrue(batchSize > 0, "batchSize must be greater than 0");
+        Assert.isTrue(purgeChunkSize > 0, "purgeChunkSize must be greater than 0");
+        this.jdbcOperations = jdbcOperations;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.registeredClientRepository = registeredClientRepository;
+        this.pendingAuthorizationTtl = pendingAuthorizationTtl;
+        this.batchSize = batchSize;
+        this.purgeChunkSize = purgeChunkSize;
+        this.countRows = countRows;
+
+        ClassLoader classLoader = JdbcHashedOAuth2AuthorizationService.class.getClassLoader();
+        this.objectMapper.registerModules(SecurityJackson2Modules.getModules(classLoader));
+        this.objectMapper.registerModule(new OAuth2AuthorizationServerJackson2Module());
+
+        this.batchSizes = DistributionSummary.builder("oauth2.authorizations.write.batch")
+                .description("Authorizations written per JDBC batch")
+                .register(meterRegistry);
+        this.purged = Counter.builder("oauth2.authorizations.purged")
+                .description("Expired authorizations deleted from the database")
+                .register(meterRegistry);
+        if (countRows) {
+            Gauge.builder("oauth2.authorizations.size", size, AtomicLong::get)
+                    .description("Authorizations stored in the database, as of the last purge")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        PendingWrite pending = new PendingWrite(authorization);
+        pendingWrites.add(pending);
+        // Quem estiver com o lock grava o lote; os demais dormem até a própria gravação terminar ou até
+        // serem acordados para assumir o lote seguinte
+        boolean interrupted = false;
+        while (!pending.result.isDone()) {
+            if (writeLock.tryLock()) {
+                try {
+                    flushPendingWrites();
+                }
+                finally {
+                    writeLock.unlock();
+                }
+                // Quem entrou na fila depois do poll já falhou no tryLock: o primeiro da fila assume
+                PendingWrite head = pendingWrites.peek();
+                if (head != null) {
+                    head.wake();
+                }
+            }
+            else {
+                LockSupport.park(this);
+                interrupted |= Thread.interrupted();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        pending.join();
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        jdbcOperations.update(REMOVE_SQL, authorization.getId());
+    }
+
+    @Nullable
+    @Override
+    public OAuth2Authorization findById(String id) {
+        Assert.hasText(id, "id cannot be empty");
+        return findBy("id = ?", id);
+    }
+
+    @Nullable
+    @Override
+    public OAuth2Authorization findByToken(String token, @Nullable OAuth2TokenType tokenType) {
+        Assert.hasText(token, "token cannot be empty");
+        String hash = TokenHashes.sha256(token);
+        if (tokenType == null) {
+            Object[] hashes = new Object[AuthorizationToken.values().length];
+            Arrays.fill(hashes, hash);
+            OAuth2Authorization authorization = findBy(ANY_TOKEN_FILTER, hashes);
+            return authorization != null && containsToken(authorization, token) ? authorization : null;
+        }
+        AuthorizationToken kind = AuthorizationToken.from(tokenType);
+        if (kind == null) {
+            return null;
+        }
+        OAuth2Authorization authorization = findBy(kind.columnPrefix() + "_hash = ?", hash);
+        return authorization != null && token.equals(kind.tokenValue(authorization)) ? authorization : null;
+    }
+
+    @Scheduled(fixedDelayString = "${app.authorization-store.jdbc.purge-interval:PT1M}")
+    public void purgeExpired() {
+        Timestamp now = Timestamp.from(Instant.now());
+        int total = 0;
+        List<String> ids;
+        do {
+            ids = jdbcOperations.queryForList(SELECT_EXPIRED_SQL, String.class, now, purgeChunkSize);
+            if (!ids.isEmpty()) {
+                List<Object[]> args = ids.stream().map(id -> new Object[] {id, now}).toList();
+                jdbcOperations.batchUpdate(DELETE_EXPIRED_SQL, args);
+                total += ids.size();
+            }
+        }
+        while (ids.size() == purgeChunkSize);
+        if (total > 0) {
+            purged.increment(total);
+            logger.debug("Purged {} expired authorizations", total);
+        }
+        if (countRows) {
+            Long count = jdbcOperations.queryForObject(COUNT_SQL, Long.class);
+            size.set(count != null ? count : 0);
+        }
+    }
+
+    private void flushPendingWrites() {
+        // Mantém apenas a última versão de cada autorização presente no lote
+        Map<String, OAuth2Authorization> latest = new LinkedHashMap<>();
+        Map<String, List<PendingWrite>> waiting = new LinkedHashMap<>();
+        int polled = 0;
+        PendingWrite next;
+        while (polled < batchSize && (next = pendingWrites.poll()) != null) {
+            polled++;
+            String id = next.authorization.getId();
+            latest.remove(id);
+            latest.put(id, next.authorization);
+            waiting.computeIfAbsent(id, key -> new ArrayList<>()).add(next);
+        }
+        if (polled == 0) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(new ArrayList<>(latest.values())));
+            batchSizes.record(polled);
+            waiting.values().forEach(pendings -> pendings.forEach(pending -> pending.complete(null)));
+        }
+        catch (RuntimeException ex) {
+            if (latest.size() == 1) {
+                waiting.values().forEach(pendings -> pendings.forEach(pending -> pending.complete(ex)));
+                return;
+            }
+            // O lote foi desfeito: uma a uma, só a autorização com problema falha
+            logger.debug("Batch write of {} authorizations failed, retrying one by one: {}", latest.size(),
+                    ex.getMessage());
+            latest.forEach((id, authorization) -> {
+                RuntimeException failure = null;
+                try {
+                    transactionTemplate.executeWithoutResult(status -> write(List.of(authorization)));
+                }
+                catch (RuntimeException rowException) {
+                    failure = rowException;
+                }
+                RuntimeException result = failure;
+                waiting.get(id).forEach(pending -> pending.complete(result));
+            });
+        }
+    }
+
+    private void write(List<OAuth2Authorization> authorizations) {
+        List<Object[]> updates = new ArrayList<>(authorizations.size());
+        for (OAuth2Authorization authorization : authorizations) {
+            updates.add(updateArguments(authorization));
+        }
+        int[] updated = jdbcOperations.batchUpdate(UPDATE_SQL, updates);
+
+        List<OAuth2Authorization> inserts = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            int count = updated[i];
+            if (count == Statement.SUCCESS_NO_INFO) {
+                // Driver sem contagem por linha no lote: o UPDATE isolado informa se a linha existia
+                count = jdbcOperations.update(UPDATE_SQL, updates.get(i));
+            }
+            if (count == 0) {
+                inserts.add(authorizations.get(i));
+            }
+            else if (count != 1) {
+                throw new IncorrectUpdateSemanticsDataAccessException("Updated " + count
+                        + " rows for authorization '" + authorizations.get(i).getId() + "'");
+            }
+        }
+        if (inserts.size() == 1) {
+            insert(inserts.get(0));
+        }
+        else if (!inserts.isEmpty()) {
+            jdbcOperations.batchUpdate(INSERT_SQL, inserts.stream().map(this::insertArguments).toList());
+        }
+    }
+
+    // Outro nó pode ter inserido a mesma autorização depois do UPDATE: a linha dele é atualizada
+    private void insert(OAuth2Authorization authorization) {
+        try {
+            jdbcOperations.update(INSERT_SQL, insertArguments(authorization));
+        }
+        catch (DuplicateKeyException ex) {
+            if (jdbcOperations.update(UPDATE_SQL, updateArguments(authorization)) != 1) {
+                throw ex;
+            }
+        }
+    }
+
+    private Object[] updateArguments(OAuth2Authorization authorization) {
+        List<Object> values = new ArrayList<>(toSqlParameters(authorization));
+        values.add(authorization.getId());
+        return values.toArray();
+    }
+
+    private Object[] insertArguments(OAuth2Authorization authorization) {
+        List<Object> values = new ArrayList<>();
+        values.add(authorization.getId());
+        values.addAll(toSqlParameters(authorization));
+        return values.toArray();
+    }
+
+    @Nullable
+    private OAuth2Authorization findBy(String filter, Object... args) {
+        List<OAuth2Authorization> result = jdbcOperations.query(LOAD_SQL + filter, rowMapper, args);
+        return !result.isEmpty() ? result.get(0) : null;
+    }
+
+    private static boolean containsToken(OAuth2Authorization authorization, String token) {
+        for (AuthorizationToken kind : AuthorizationToken.values()) {
+            if (token.equals(kind.tokenValue(authorization))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Mesma ordem de dataColumns()
+    private List<SqlParameterValue> toSqlParameters(OAuth2Authorization authorization) {
+        List<SqlParameterValue> values = new ArrayList<>(DATA_COLUMNS.size());
+        values.add(varchar(authorization.getRegisteredClientId()));
+        values.add(varchar(authorization.getPrincipalName()));
+        values.add(varchar(authorization.getAuthorizationGrantType().getValue()));
+        values.add(varchar(commaDelimited(authorization.getAuthorizedScopes())));
+        values.add(varchar(writeMap(authorization.getAttributes())));
+        values.add(varchar(hash(AuthorizationToken.STATE.tokenValue(authorization))));
+        for (AuthorizationToken kind : AuthorizationToken.values()) {
+            if (kind == AuthorizationToken.STATE) {
+                continue;
+            }
+            OAuth2Authorization.Token<? extends OAuth2Token> token = kind.token(authorization);
+            addToken(values, token);
+            if (kind == AuthorizationToken.ACCESS_TOKEN) {
+                OAuth2AccessToken accessToken = token != null ? (OAuth2AccessToken) token.getToken() : null;
+                values.add(varchar(accessToken != null ? accessToken.getTokenType().getValue() : null));
+                values.add(varchar(accessToken != null ? commaDelimited(accessToken.getScopes()) : null));
+            }
+        }
+        Instant expiresAt = AuthorizationToken.latestExpiry(authorization);
+        values.add(timestamp(expiresAt != null ? expiresAt : Instant.now().plus(pendingAuthorizationTtl)));
+        return values;
+    }
+
+    private void addToken(List<SqlParameterValue> values, @Nullable OAuth2Authorization.Token<?> token) {
+        OAuth2Token value = token != null ? token.getToken() : null;
+        values.add(varchar(value != null ? value.getTokenValue() : null));
+        values.add(varchar(value != null ? hash(value.getTokenValue()) : null));
+        values.add(timestamp(value != null ? value.getIssuedAt() : null));
+        values.add(timestamp(value != null ? value.getExpiresAt() : null));
+        values.add(varchar(token != null ? writeMap(token.getMetadata()) : null));
+    }
+
+    private OAuth2Authorization mapRow(ResultSet rs, int rowNum) throws SQLException {
+        String registeredClientId = rs.getString("registered_client_id");
+        RegisteredClient registeredClient = registeredClientRepository.findById(registeredClientId);
+        if (registeredClient == null) {
+            throw new DataRetrievalFailureException("The RegisteredClient with id '" + registeredClientId
+                    + "' was not found in the RegisteredClientRepository.");
+        }
+
+        OAuth2Authorization.Builder builder = OAuth2Authorization.withRegisteredClient(registeredClient)
+                .id(rs.getString("id"))
+                .principalName(rs.getString("principal_name"))
+                .authorizationGrantType(new AuthorizationGrantType(rs.getString("authorization_grant_type")))
+                .authorizedScopes(StringUtils.commaDelimitedListToSet(rs.getString("authorized_scopes")))
+                .attributes(attributes -> attributes.putAll(parseMap(rs, "attributes")));
+
+        String code = rs.getString("authorization_code_value");
+        if (code != null) {
+            builder.token(new OAuth2AuthorizationCode(code,
+                            instant(rs, "authorization_code_issued_at"), instant(rs, "authorization_code_expires_at")),
+                    metadata -> metadata.putAll(parseMap(rs, "authorization_code_metadata")));
+        }
+        String accessToken = rs.getString("access_token_value");
+        if (accessToken != null) {
+            builder.token(new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, accessToken,
+                            instant(rs, "access_token_issued_at"), instant(rs, "access_token_expires_at"),
+                            StringUtils.commaDelimitedListToSet(rs.getString("access_token_scopes"))),
+                    metadata -> metadata.putAll(parseMap(rs, "access_token_metadata")));
+        }
+        String idToken = rs.getString("oidc_id_token_value");
+        if (idToken != null) {
+            Map<String, Object> metadata = parseMap(rs, "oidc_id_token_metadata");
+            @SuppressWarnings("unchecked")
+            Map<String, Object> claims = (Map<String, Object>) metadata.get(OAuth2Authorization.Token.CLAIMS_METADATA_NAME);
+            builder.token(new OidcIdToken(idToken,
+                            instant(rs, "oidc_id_token_issued_at"), instant(rs, "oidc_id_token_expires_at"), claims),
+                    tokenMetadata -> tokenMetadata.putAll(metadata));
+        }
+        String refreshToken = rs.getString("refresh_token_value");
+        if (refreshToken != null) {
+            builder.token(new OAuth2RefreshToken(refreshToken,
+                            instant(rs, "refresh_token_issued_at"), instant(rs, "refresh_token_expires_at")),
+                    metadata -> metadata.putAll(parseMap(rs, "refresh_token_metadata")));
+        }
+        String userCode = rs.getString("user_code_value");
+        if (userCode != null) {
+            builder.token(new OAuth2UserCode(userCode,
+                            instant(rs, "user_code_issued_at"), instant(rs, "user_code_expires_at")),
+                    metadata -> metadata.putAll(parseMap(rs, "user_code_metadata")));
+        }
+        String deviceCode = rs.getString("device_code_value");
+        if (deviceCode != null) {
+            builder.token(new OAuth2DeviceCode(deviceCode,
+                            instant(rs, "device_code_issued_at"), instant(rs, "device_code_expires_at")),
+                    metadata -> metadata.putAll(parseMap(rs, "device_code_metadata")));
+        }
+        return builder.build();
+    }
+
+    private Map<String, Object> parseMap(ResultSet rs, String column) {
+        try {
+            String json = rs.getString(column);
+            return json != null ? objectMapper.readValue(json, new TypeReference<>() {}) : Map.of();
+        }
+        catch (SQLException | JsonProcessingException ex) {
+            throw new IllegalArgumentException("Unable to read column " + column, ex);
+        }
+    }
+
+    private String writeMap(Map<String, Object> map) {
+        try {
+            return objectMapper.writeValueAsString(map);
+        }
+        catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException(ex.getMessage(), ex);
+        }
+    }
+
+    private static List<String> dataColumns() {
+        List<String> columns = new ArrayList<>(List.of("registered_client_id", "principal_name",
+                "authorization_grant_type", "authorized_scopes", "attributes", "state_hash"));
+        for (AuthorizationToken token : AuthorizationToken.values()) {
+            if (token == AuthorizationToken.STATE) {
+                continue;
+            }
+            String prefix = token.columnPrefix();
+            columns.addAll(List.of(prefix + "_value", prefix + "_hash", prefix + "_issued_at",
+                    prefix + "_expires_at", prefix + "_metadata"));
+            if (token == AuthorizationToken.ACCESS_TOKEN) {
+                columns.addAll(List.of("access_token_type", "access_token_scopes"));
+            }
+        }
+        columns.add("expires_at");
+        return List.copyOf(columns);
+    }
+
+    private static String hash(@Nullable String value) {
+        return value != null ? TokenHashes.sha256(value) : null;
+    }
+
+    private static String commaDelimited(Set<String> values) {
+        return !values.isEmpty() ? StringUtils.collectionToCommaDelimitedString(values) : null;
+    }
+
+    private static SqlParameterValue varchar(@Nullable String value) {
+        return new SqlParameterValue(Types.VARCHAR, value);
+    }
+
+    private static SqlParameterValue timestamp(@Nullable Instant value) {
+        return new SqlParameterValue(Types.TIMESTAMP, value != null ? Timestamp.from(value) : null);
+    }
+
+    @Nullable
+    private static Instant instant(ResultSet rs, String column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column);
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+
+    private static final class PendingWrite {
+
+        private final OAuth2Authorization authorization;
+        // Quem chamou save(); acordada ao fim da gravação ou quando é a sua vez de gravar o lote
+        private final Thread waiter = Thread.currentThread();
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        private PendingWrite(OAuth2Authorization authorization) {
+            this.authorization = authorization;
+        }
+
+        private void complete(@Nullable RuntimeException failure) {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            }
+            else {
+                result.complete(null);
+            }
+            wake();
+        }
+
+        private void wake() {
+            LockSupport.unpark(waiter);
+        }
+
+        private void join() {
+            try {
+                result.join();
+            }
+            catch (CompletionException ex) {
+                if (ex.getCause() instanceof DataAccessException dataAccessException) {
+                    throw dataAccessException;
+                }
+                throw ex;
+            }
+        }
+    }
+}
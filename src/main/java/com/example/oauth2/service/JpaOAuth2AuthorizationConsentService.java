@@ -0,0 +1,164 @@
+package com.example.oauth2.service;
+
+import com.example.oauth2.entity.AuthorizationConsent;
+import com.example.oauth2.entity.User;
+import com.example.oauth2.repository.AuthorizationConsentRepository;
+import com.example.oauth2.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.lang.Nullable;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsent;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsentService;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * {@link OAuth2AuthorizationConsentService} persistido em {@code oauth2_authorization_consents}, com uma linha
+ * por cliente e usuário ({@link User}); os consentimentos somem junto com o usuário.
+ * <p>
+ * As consultas passam por um cache local limitado, indexado por {@code (registeredClientId, principalName)},
+ * que também guarda a ausência de consentimento: autorizações repetidas não vão ao banco. As gravações deste nó
+ * atualizam o cache na hora; as de outros nós aparecem em até {@code ttl}. Um {@link UserChangedEvent}
+ * descarta as entradas do usuário (inclusive as do username antigo quando ele muda).
+ * <p>
+ * A primeira gravação de um par cliente/usuário é inserida em uma transação própria: se outra requisição
+ * inserir o mesmo par antes (índice único), a linha dela é relida e atualizada em vez de falhar.
+ */
+public class JpaOAuth2AuthorizationConsentService implements OAuth2AuthorizationConsentService {
+
+    private final AuthorizationConsentRepository consentRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate insertTransaction;
+    private final Cache<ConsentKey, CachedConsent> cache;
+
+    public JpaOAuth2AuthorizationConsentService(AuthorizationConsentRepository consentRepository,
+                                                UserRepository userRepository,
+                                                PlatformTransactionManager transactionManager,
+                                                long maximumSize, Duration ttl) {
+        Assert.notNull(consentRepository, "consentRepository cannot be null");
+        Assert.notNull(userRepository, "userRepository cannot be null");
+        Assert.notNull(transactionManager, "transactionManager cannot be null");
+        this.consentRepository = consentRepository;
+        this.userRepository = userRepository;
+        this.insertTransaction = new TransactionTemplate(transactionManager);
+        this.insertTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public void save(OAuth2AuthorizationConsent authorizationConsent) {
+        Assert.notNull(authorizationConsent, "authorizationConsent cannot be null");
+        String registeredClientId = authorizationConsent.getRegisteredClientId();
+        String principalName = authorizationConsent.getPrincipalName();
+        Set<String> authorities = new LinkedHashSet<>();
+        for (GrantedAuthority authority : authorizationConsent.getAuthorities()) {
+            authorities.add(authority.getAuthority());
+        }
+        AuthorizationConsent entity = consentRepository.findByRegisteredClientIdAndUsername(registeredClientId, principalName)
+                .orElse(null);
+        if (entity == null) {
+            entity = insert(registeredClientId, principalName, authorities);
+        }
+        if (entity == null) {
+            // Outra requisição inseriu o mesmo par entre a consulta e o insert
+            entity = consentRepository.findByRegisteredClientIdAndUsername(registeredClientId, principalName)
+                    .orElseThrow(() -> new IllegalStateException("Authorization consent for '" + principalName
+                            + "' was removed while being saved"));
+        }
+        if (!authorities.equals(entity.getAuthorities())) {
+            entity.setAuthorities(authorities);
+            consentRepository.save(entity);
+        }
+        cache.put(new ConsentKey(registeredClientId, principalName),
+                new CachedConsent(entity.getUser().getId(), authorizationConsent));
+    }
+
+    @Override
+    @Transactional
+    public void remove(OAuth2AuthorizationConsent authorizationConsent) {
+        Assert.notNull(authorizationConsent, "authorizationConsent cannot be null");
+        ConsentKey key = new ConsentKey(authorizationConsent.getRegisteredClientId(),
+                authorizationConsent.getPrincipalName());
+        consentRepository.findByRegisteredClientIdAndUsername(key.registeredClientId(), key.principalName())
+                .ifPresent(consentRepository::delete);
+        cache.put(key, new CachedConsent(null, null));
+    }
+
+    @Nullable
+    @Override
+    public OAuth2AuthorizationConsent findById(String registeredClientId, String principalName) {
+        Assert.hasText(registeredClientId, "registeredClientId cannot be empty");
+        Assert.hasText(principalName, "principalName cannot be empty");
+        // Carregamentos concorrentes da mesma chave fazem uma única consulta
+        return cache.get(new ConsentKey(registeredClientId, principalName), this::load).consent();
+    }
+
+    // Sem transação (ex.: escrita fora de @Transactional) o evento é tratado na hora
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        cache.asMap().keySet().removeIf(key -> key.principalName().equals(event.getUsername()));
+        if (event.getUserId() != null) {
+            cache.asMap().values().removeIf(cached -> event.getUserId().equals(cached.userId()));
+        }
+    }
+
+    public Cache<ConsentKey, CachedConsent> getCache() {
+        return cache;
+    }
+
+    // null se o par já existir: a transação do insert é desfeita sem afetar a de save()
+    @Nullable
+    private AuthorizationConsent insert(String registeredClientId, String principalName, Set<String> authorities) {
+        try {
+            return insertTransaction.execute(status -> {
+                User user = userRepository.findByUsername(principalName)
+                        .orElseThrow(() -> new IllegalArgumentException("User not found: " + principalName));
+                AuthorizationConsent entity = new AuthorizationConsent(registeredClientId, user);
+                entity.setAuthorities(authorities);
+                return consentRepository.saveAndFlush(entity);
+            });
+        }
+        catch (DataIntegrityViolationException ex) {
+            return null;
+        }
+    }
+
+    private CachedConsent load(ConsentKey key) {
+        return consentRepository.findByRegisteredClientIdAndUsername(key.registeredClientId(), key.principalName())
+                .filter(entity -> entity.getAuthorities() != null && !entity.getAuthorities().isEmpty())
+                .map(entity -> new CachedConsent(entity.getUser().getId(), toConsent(key, entity)))
+                .orElseGet(() -> new CachedConsent(null, null));
+    }
+
+    private static OAuth2AuthorizationConsent toConsent(ConsentKey key, AuthorizationConsent entity) {
+        return OAuth2AuthorizationConsent.withId(key.registeredClientId(), key.principalName())
+                .authorities(authorities -> entity.getAuthorities()
+                        .forEach(authority -> authorities.add(new SimpleGrantedAuthority(authority))))
+                .build();
+    }
+
+    public record ConsentKey(String registeredClientId, String principalName) {
+    }
+
+    /**
+     * {@code consent} nulo: não há consentimento (entrada negativa).
+     */
+    public record CachedConsent(Long userId, OAuth2AuthorizationConsent consent) {
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.oauth2.service;
+
+import com.example.oauth2.entity.OAuth2Client;
+import com.example.oauth2.repository.OAuth2ClientRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.jackson2.OAuth2AuthorizationServerJackson2Module;
+import org.springframework.security.oauth2.server.authorization.settings.ClientSettings;
+import org.springframework.security.oauth2.server.authorization.settings.TokenSettings;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * {@link RegisteredClientRepository} persistido em {@code oauth2_clients}.
+ * Cada cliente ocupa uma única linha, então uma busca é uma única consulta; os clientes
+ * resolvidos ficam em um cache local limitado, indexado por {@code id} e por {@code clientId}.
+ * <p>
+ * {@link ClientSettings} e {@link TokenSettings} são gravados inteiros em JSON (mesmo formato do
+ * {@code JdbcRegisteredClientRepository}); linhas sem o JSON são lidas pelas colunas de consentimento e TTLs.
+ */
+public class JpaRegisteredClientRepository implements RegisteredClientRepository {
+
+    private final OAuth2ClientRepository clientRepository;
+    private final Cache<String, RegisteredClient> clientsById;
+    private final Cache<String, RegisteredClient> clientsByClientId;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public JpaRegisteredClientRepository(OAuth2ClientRepository clientRepository, long maximumSize, Duration ttl) {
+        Assert.notNull(clientRepository, "clientRepository cannot be null");
+        this.clientRepository = clientRepository;
+        this.clientsById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.clientsByClientId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+
+        ClassLoader classLoader = JpaRegisteredClientRepository.class.getClassLoader();
+        this.objectMapper.registerModules(SecurityJackson2Modules.getModules(classLoader));
+        this.objectMapper.registerModule(new OAuth2AuthorizationServerJackson2Module());
+    }
+
+    @Override
+    public void save(RegisteredClient registeredClient) {
+        Assert.notNull(registeredClient, "registeredClient cannot be null");
+        OAuth2Client entity = clientRepository.findByRegisteredClientId(registeredClient.getId())
+                .orElseGet(OAuth2Client::new);
+        String previousClientId = entity.getClientId();
+        clientRepository.save(toEntity(registeredClient, entity));
+
+        // Invalida as duas chaves, inclusive o clientId antigo caso tenha mudado
+        clientsById.invalidate(registeredClient.getId());
+        clientsByClientId.invalidate(registeredClient.getClientId());
+        if (previousClientId != null) {
+            clientsByClientId.invalidate(previousClientId);
+        }
+    }
+
+    @Override
+    public RegisteredClient findById(String id) {
+        Assert.hasText(id, "id cannot be empty");
+        RegisteredClient cached = clientsById.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+        return clientRepository.findByRegisteredClientId(id)
+                .map(this::cache)
+                .orElse(null);
+    }
+
+    @Override
+    public RegisteredClient findByClientId(String clientId) {
+        Assert.hasText(clientId, "clientId cannot be empty");
+        RegisteredClient cached = clientsByClientId.getIfPresent(clientId);
+        if (cached != null) {
+            return cached;
+        }
+        return clientRepository.findByClientId(clientId)
+                .map(this::cache)
+                .orElse(null);
+    }
+
+    private RegisteredClient cache(OAuth2Client entity) {
+        RegisteredClient registeredClient = toRegisteredClient(entity);
+        clientsById.put(registeredClient.getId(), registeredClient);
+        clientsByClientId.put(registeredClient.getClientId(), registeredClient);
+        return registeredClient;
+    }
+
+    private RegisteredClient toRegisteredClient(OAuth2Client entity) {
+        return RegisteredClient.withId(entity.getRegisteredClientId())
+                .clientId(entity.getClientId())
+                .clientIdIssuedAt(entity.getClientIdIssuedAt())
+                .clientSecret(entity.getClientSecret())
+                .clientSecretExpiresAt(entity.getClientSecretExpiresAt())
+                .clientName(entity.getClientName())
+                .clientAuthenticationMethods(methods -> entity.getClientAuthenticationMethods()
+                        .forEach(method -> methods.add(new ClientAuthenticationMethod(method))))
+                .authorizationGrantTypes(grantTypes -> entity.getGrantTypes()
+                        .forEach(grantType -> grantTypes.add(new AuthorizationGrantType(grantType))))
+                .redirectUris(uris -> uris.addAll(entity.getRedirectUris()))
+                .postLogoutRedirectUris(uris -> uris.addAll(entity.getPostLogoutRedirectUris()))
+                .scopes(scopes -> scopes.addAll(entity.getScopes()))
+                .clientSettings(toClientSettings(entity))
+                .tokenSettings(toTokenSettings(entity))
+                .build();
+    }
+
+    private ClientSettings toClientSettings(OAuth2Client entity) {
+        if (entity.getClientSettings() != null) {
+            return ClientSettings.withSettings(parseMap(entity.getClientSettings())).build();
+        }
+        return ClientSettings.builder()
+                .requireAuthorizationConsent(Boolean.TRUE.equals(entity.getRequireConsent()))
+                .build();
+    }
+
+    private TokenSettings toTokenSettings(OAuth2Client entity) {
+        if (entity.getTokenSettings() != null) {
+            return TokenSettings.withSettings(parseMap(entity.getTokenSettings())).build();
+        }
+        return TokenSettings.builder()
+                .accessTokenTimeToLive(Duration.ofSeconds(entity.getAccessTokenValidity()))
+                .refreshTokenTimeToLive(Duration.ofSeconds(entity.getRefreshTokenValidity()))
+                .build();
+    }
+
+    private OAuth2Client toEntity(RegisteredClient registeredClient, OAuth2Client entity) {
+        entity.setRegisteredClientId(registeredClient.getId());
+        entity.setClientId(registeredClient.getClientId());
+        entity.setClientIdIssuedAt(registeredClient.getClientIdIssuedAt());
+        entity.setClientSecret(registeredClient.getClientSecret());
+        entity.setClientSecretExpiresAt(registeredClient.getClientSecretExpiresAt());
+        entity.setClientName(registeredClient.getClientName());
+        entity.setClientAuthenticationMethods(registeredClient.getClientAuthenticationMethods().stream()
+                .map(ClientAuthenticationMethod::getValue)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+        entity.setGrantTypes(registeredClient.getAuthorizationGrantTypes().stream()
+                .map(AuthorizationGrantType::getValue)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+        entity.setRedirectUris(new LinkedHashSet<>(registeredClient.getRedirectUris()));
+        entity.setPostLogoutRedirectUris(new LinkedHashSet<>(registeredClient.getPostLogoutRedirectUris()));
+        entity.setScopes(new LinkedHashSet<>(registeredClient.getScopes()));
+        entity.setRequireConsent(registeredClient.getClientSettings().isRequireAuthorizationConsent());
+        entity.setAccessTokenValidity((int) registeredClient.getTokenSettings().getAccessTokenTimeToLive().getSeconds());
+        entity.setRefreshTokenValidity((int) registeredClient.getTokenSettings().getRefreshTokenTimeToLive().getSeconds());
+        entity.setClientSettings(writeMap(registeredClient.getClientSettings().getSettings()));
+        entity.setTokenSettings(writeMap(registeredClient.getTokenSettings().getSettings()));
+        return entity;
+    }
+
+    private Map<String, Object> parseMap(String json) {
+        try {
+            return objectMapper.readValue(json, new TypeReference<>() {});
+        }
+        catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException(ex.getMessage(), ex);
+        }
+    }
+
+    private String writeMap(Map<String, Object> map) {
+        try {
+            return objectMapper.writeValueAsString(map);
+        }
+        catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException(ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.oauth2.service;
+
+import com.example.oauth2.entity.User;
+import com.example.oauth2.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+
+/**
+ * {@link UserDetailsService} sobre a tabela {@code users}. O usuário e suas roles vêm de uma única
+ * consulta com {@code join fetch}; o resultado fica em um cache local limitado, então o login de contas
+ * frequentes não vai ao banco.
+ * <p>
+ * O cache guarda {@link UserDetails} imutáveis e cada chamada devolve uma cópia: o {@code ProviderManager}
+ * apaga a senha do principal depois da autenticação. As entradas são invalidadas pelo {@link UserChangedEvent},
+ * publicado após o commit de qualquer escrita no usuário (inclusive desabilitar a conta ou trocar o username).
+ */
+public class JpaUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    private final UserRepository userRepository;
+    private final Cache<String, CachedUser> cache;
+
+    public JpaUserDetailsService(UserRepository userRepository, long maximumSize, Duration ttl) {
+        Assert.notNull(userRepository, "userRepository cannot be null");
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        CachedUser cached = cache.getIfPresent(username);
+        if (cached == null) {
+            User user = userRepository.findWithRolesByUsername(username)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+            cached = new CachedUser(user.getId(), toUserDetails(user));
+            cache.put(username, cached);
+        }
+        return copy(cached.userDetails());
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails)
+                .password(newPassword)
+                .build();
+    }
+
+    // Sem transação (ex.: escrita fora de @Transactional) o evento é tratado na hora
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        cache.invalidate(event.getUsername());
+        // Pelo id, para também descartar a entrada do username antigo quando ele muda
+        if (event.getUserId() != null) {
+            cache.asMap().values().removeIf(cached -> event.getUserId().equals(cached.userId()));
+        }
+    }
+
+    public Cache<String, CachedUser> getCache() {
+        return cache;
+    }
+
+    private static UserDetails toUserDetails(User user) {
+        return org.springframework.security.core.userdetails.User.withUsername(user.getUsername())
+                .password(user.getPassword())
+                .disabled(!Boolean.TRUE.equals(user.getEnabled()))
+                .authorities(user.getRoles().stream()
+                        .map(role -> new SimpleGrantedAuthority(role.getName().name()))
+                        .toList())
+                .build();
+    }
+
+    private static UserDetails copy(UserDetails userDetails) {
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails).build();
+    }
+
+    public record CachedUser(Long userId, UserDetails userDetails) {
+    }
+}
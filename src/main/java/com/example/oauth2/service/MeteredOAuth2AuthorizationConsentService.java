@@ -0,0 +1,50 @@
+package com.example.oauth2.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsent;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsentService;
+import org.springframework.util.Assert;
+
+/**
+ * {@link OAuth2AuthorizationConsentService} que conta as consultas de consentimento
+ * ({@code oauth2.consent.lookups}), separando as que encontram um consentimento das que não encontram.
+ */
+public class MeteredOAuth2AuthorizationConsentService implements OAuth2AuthorizationConsentService {
+
+    private final OAuth2AuthorizationConsentService delegate;
+    private final Counter found;
+    private final Counter notFound;
+
+    public MeteredOAuth2AuthorizationConsentService(OAuth2AuthorizationConsentService delegate,
+                                                    MeterRegistry meterRegistry) {
+        Assert.notNull(delegate, "delegate cannot be null");
+        this.delegate = delegate;
+        this.found = lookups(meterRegistry, "found");
+        this.notFound = lookups(meterRegistry, "not_found");
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("oauth2.consent.lookups")
+                .description("Authorization consent lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void save(OAuth2AuthorizationConsent authorizationConsent) {
+        delegate.save(authorizationConsent);
+    }
+
+    @Override
+    public void remove(OAuth2AuthorizationConsent authorizationConsent) {
+        delegate.remove(authorizationConsent);
+    }
+
+    @Override
+    public OAuth2AuthorizationConsent findById(String registeredClientId, String principalName) {
+        OAuth2AuthorizationConsent consent = delegate.findById(registeredClientId, principalName);
+        (consent != null ? found : notFound).increment();
+        return consent;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.oauth2.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenContext;
+import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenGenerator;
+import org.springframework.util.Assert;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link OAuth2TokenGenerator} que conta os tokens gerados ({@code oauth2.tokens.issued}) por grant type,
+ * cliente e tipo de token.
+ * <p>
+ * A tag {@code client} recebe o {@code client_id} dos primeiros {@code maximumClientTags} clientes que
+ * obtiverem tokens; os seguintes aparecem como {@code other}, mantendo a cardinalidade limitada.
+ */
+public class MeteredOAuth2TokenGenerator implements OAuth2TokenGenerator<OAuth2Token> {
+
+    static final String OTHER_CLIENT = "other";
+
+    private final OAuth2TokenGenerator<? extends OAuth2Token> delegate;
+    private final MeterRegistry meterRegistry;
+    private final int maximumClientTags;
+    private final Set<String> taggedClients = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<IssuedTokenKey, Counter> counters = new ConcurrentHashMap<>();
+
+    public MeteredOAuth2TokenGenerator(OAuth2TokenGenerator<? extends OAuth2Token> delegate,
+                                       MeterRegistry meterRegistry, int maximumClientTags) {
+        Assert.notNull(delegate, "delegate cannot be null");
+        Assert.isTrue(maximumClientTags >= 0, "maximumClientTags cannot be negative");
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.maximumClientTags = maximumClientTags;
+    }
+
+    @Override
+    public OAuth2Token generate(OAuth2TokenContext context) {
+        OAuth2Token token = delegate.generate(context);
+        if (token != null) {
+            AuthorizationGrantType grantType = context.getAuthorizationGrantType();
+            IssuedTokenKey key = new IssuedTokenKey(
+                    grantType != null ? grantType.getValue() : "unknown",
+                    clientTag(context.getRegisteredClient().getClientId()),
+                    context.getTokenType().getValue());
+            counters.computeIfAbsent(key, this::counter).increment();
+        }
+        return token;
+    }
+
+    private String clientTag(String clientId) {
+        if (taggedClients.contains(clientId)) {
+            return clientId;
+        }
+        // Corrida entre threads pode passar do limite por poucos clientes; não afeta a ordem de grandeza
+        if (taggedClients.size() < maximumClientTags) {
+            taggedClients.add(clientId);
+            return clientId;
+        }
+        return OTHER_CLIENT;
+    }
+
+    private Counter counter(IssuedTokenKey key) {
+        return Counter.builder("oauth2.tokens.issued")
+                .description("Tokens issued by the authorization server")
+                .tag("grant_type", key.grantType())
+                .tag("client", key.client())
+                .tag("token_type", key.tokenType())
+                .register(meterRegistry);
+    }
+
+    private record IssuedTokenKey(String grantType, String client, String tokenType) {
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.oauth2.service;
+
+import com.example.oauth2.security.OAuth2TokenRevokedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.util.Assert;
+
+import java.util.Map;
+
+/**
+ * Decora o {@link OAuth2AuthorizationService} usado pelo authorization server e publica um
+ * {@link OAuth2TokenRevokedEvent} sempre que uma autorização é gravada com o access token
+ * invalidado e ainda dentro da validade.
+ */
+public class RevocationPublishingAuthorizationService implements OAuth2AuthorizationService {
+
+    private final OAuth2AuthorizationService delegate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public RevocationPublishingAuthorizationService(OAuth2AuthorizationService delegate,
+                                                    ApplicationEventPublisher eventPublisher) {
+        Assert.notNull(delegate, "delegate cannot be null");
+        Assert.notNull(eventPublisher, "eventPublisher cannot be null");
+        this.delegate = delegate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        delegate.save(authorization);
+
+        OAuth2Authorization.Token<OAuth2AccessToken> accessToken = authorization.getAccessToken();
+        if (accessToken == null || !accessToken.isInvalidated() || accessToken.isExpired()) {
+            return;
+        }
+        Map<String, Object> claims = accessToken.getClaims();
+        Object tokenId = claims != null ? claims.get(JwtClaimNames.JTI) : null;
+        // Tokens opacos não passam pelo JwtDecoder, não há o que bloquear
+        if (tokenId != null) {
+            eventPublisher.publishEvent(new OAuth2TokenRevokedEvent(this, tokenId.toString(),
+                    accessToken.getToken().getExpiresAt()));
+        }
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        delegate.remove(authorization);
+    }
+
+    @Nullable
+    @Override
+    public OAuth2Authorization findById(String id) {
+        return delegate.findById(id);
+    }
+
+    @Nullable
+    @Override
+    public OAuth2Authorization findByToken(String token, @Nullable OAuth2TokenType tokenType) {
+        return delegate.findByToken(token, tokenType);
+    }
+}
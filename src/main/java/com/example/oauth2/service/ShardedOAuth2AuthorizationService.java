@@ -0,0 +1,301 @@
+package com.example.oauth2.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link OAuth2AuthorizationService} em memória, limitado e com expiração.
+ * <p>
+ * Os registros ficam em shards protegidos por locks independentes (shard escolhido pelo id) e cada
+ * valor de token é indexado no shard do próprio valor, então qualquer busca por token é O(1). O índice é
+ * alterado com o lock do registro adquirido (e depois o lock de índice do shard do valor, nunca o contrário),
+ * então gravações e remoções concorrentes do mesmo id não deixam entradas órfãs.
+ * Um sweeper agendado remove autorizações cujos tokens já expiraram; ao atingir o limite de um
+ * shard, a autorização com expiração mais próxima é descartada. Cada shard mantém as entradas também
+ * ordenadas por expiração, então as duas operações custam O(log n) por entrada removida.
+ */
+public class ShardedOAuth2AuthorizationService implements OAuth2AuthorizationService {
+
+    private final Shard[] shards;
+    private final int maximumEntriesPerShard;
+    private final Duration pendingAuthorizationTtl;
+    private final AtomicInteger size = new AtomicInteger();
+    private final Counter expiredEvictions;
+    private final Counter capacityEvictions;
+
+    public ShardedOAuth2AuthorizationService(int shardCount, int maximumEntries, Duration pendingAuthorizationTtl,
+                                             MeterRegistry meterRegistry) {
+        Assert.isTrue(shardCount > 0, "shardCount must be greater than 0");
+        Assert.isTrue(maximumEntries >= shardCount, "maximumEntries must be at least shardCount");
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+        }
+        this.maximumEntriesPerShard = (maximumEntries + shardCount - 1) / shardCount;
+        this.pendingAuthorizationTtl = pendingAuthorizationTtl;
+
+        Gauge.builder("oauth2.authorizations.size", size, AtomicInteger::get)
+                .description("Authorizations held in memory")
+                .register(meterRegistry);
+        Gauge.builder("oauth2.authorizations.capacity", () -> (double) maximumEntriesPerShard * shardCount)
+                .description("Maximum authorizations held in memory")
+                .register(meterRegistry);
+        this.expiredEvictions = Counter.builder("oauth2.authorizations.evictions")
+                .description("Authorizations removed from memory")
+                .tag("reason", "expired")
+                .register(meterRegistry);
+        this.capacityEvictions = Counter.builder("oauth2.authorizations.evictions")
+                .description("Authorizations removed from memory")
+                .tag("reason", "capacity")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        Entry entry = new Entry(authorization, expiresAt(authorization));
+
+        Shard shard = shardFor(authorization.getId());
+        shard.lock.lock();
+        try {
+            Entry previous = shard.put(entry);
+            if (previous == null) {
+                size.incrementAndGet();
+                if (shard.authorizations.size() > maximumEntriesPerShard) {
+                    unindex(shard.evictSoonestExpiring(authorization.getId()), null);
+                    size.decrementAndGet();
+                    capacityEvictions.increment();
+                }
+            }
+            else {
+                unindex(previous, entry);
+            }
+            index(entry);
+        }
+        finally {
+            shard.lock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        Shard shard = shardFor(authorization.getId());
+        shard.lock.lock();
+        try {
+            Entry removed = shard.remove(authorization.getId());
+            if (removed != null) {
+                size.decrementAndGet();
+                unindex(removed, null);
+            }
+        }
+        finally {
+            shard.lock.unlock();
+        }
+    }
+
+    @Nullable
+    @Override
+    public OAuth2Authorization findById(String id) {
+        Assert.hasText(id, "id cannot be empty");
+        Entry entry = get(id);
+        return entry != null ? entry.authorization() : null;
+    }
+
+    @Nullable
+    @Override
+    public OAuth2Authorization findByToken(String token, @Nullable OAuth2TokenType tokenType) {
+        Assert.hasText(token, "token cannot be empty");
+        if (tokenType == null) {
+            for (AuthorizationToken kind : AuthorizationToken.values()) {
+                OAuth2Authorization authorization = findByToken(token, kind);
+                if (authorization != null) {
+                    return authorization;
+                }
+            }
+            return null;
+        }
+        AuthorizationToken kind = AuthorizationToken.from(tokenType);
+        return kind != null ? findByToken(token, kind) : null;
+    }
+
+    @Scheduled(fixedDelayString = "${app.authorization-store.sweep-interval:PT1M}")
+    public void removeExpired() {
+        Instant now = Instant.now();
+        for (Shard shard : shards) {
+            List<Entry> expired;
+            shard.lock.lock();
+            try {
+                expired = shard.removeExpired(now);
+                expired.forEach(entry -> unindex(entry, null));
+            }
+            finally {
+                shard.lock.unlock();
+            }
+            size.addAndGet(-expired.size());
+            expiredEvictions.increment(expired.size());
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    private OAuth2Authorization findByToken(String token, AuthorizationToken kind) {
+        Shard shard = shardFor(token);
+        String id;
+        shard.indexLock.lock();
+        try {
+            id = shard.index.get(kind).get(token);
+        }
+        finally {
+            shard.indexLock.unlock();
+        }
+        if (id == null) {
+            return null;
+        }
+        Entry entry = get(id);
+        // O registro pode ter mudado depois da leitura do índice; confirma que o token ainda pertence a ele
+        return entry != null && token.equals(kind.tokenValue(entry.authorization())) ? entry.authorization() : null;
+    }
+
+    private Entry get(String id) {
+        Shard shard = shardFor(id);
+        shard.lock.lock();
+        try {
+            return shard.authorizations.get(id);
+        }
+        finally {
+            shard.lock.unlock();
+        }
+    }
+
+    // index e unindex são chamados com o lock do shard do registro adquirido
+    private void index(Entry entry) {
+        OAuth2Authorization authorization = entry.authorization();
+        for (AuthorizationToken kind : AuthorizationToken.values()) {
+            String value = kind.tokenValue(authorization);
+            if (value != null) {
+                Shard shard = shardFor(value);
+                shard.indexLock.lock();
+                try {
+                    shard.index.get(kind).put(value, authorization.getId());
+                }
+                finally {
+                    shard.indexLock.unlock();
+                }
+            }
+        }
+    }
+
+    private void unindex(Entry entry, @Nullable Entry replacement) {
+        OAuth2Authorization authorization = entry.authorization();
+        for (AuthorizationToken kind : AuthorizationToken.values()) {
+            String value = kind.tokenValue(authorization);
+            if (value == null || (replacement != null && value.equals(kind.tokenValue(replacement.authorization())))) {
+                continue;
+            }
+            Shard shard = shardFor(value);
+            shard.indexLock.lock();
+            try {
+                shard.index.get(kind).remove(value, authorization.getId());
+            }
+            finally {
+                shard.indexLock.unlock();
+            }
+        }
+    }
+
+    private Shard shardFor(String key) {
+        int hash = key.hashCode();
+        return shards[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % shards.length];
+    }
+
+    private Instant expiresAt(OAuth2Authorization authorization) {
+        Instant expiresAt = AuthorizationToken.latestExpiry(authorization);
+        // Autorizações aguardando consentimento ainda não têm tokens
+        return expiresAt != null ? expiresAt : Instant.now().plus(pendingAuthorizationTtl);
+    }
+
+    private record Entry(OAuth2Authorization authorization, Instant expiresAt) {
+
+        // Desempate pelo id: duas autorizações podem expirar no mesmo instante
+        static final Comparator<Entry> BY_EXPIRY = Comparator.comparing(Entry::expiresAt)
+                .thenComparing(entry -> entry.authorization().getId());
+    }
+
+    private static final class Shard {
+
+        // lock protege os registros; indexLock, o índice de tokens. Quem precisa dos dois adquire lock primeiro
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ReentrantLock indexLock = new ReentrantLock();
+        private final Map<String, Entry> authorizations = new HashMap<>();
+        // As mesmas entradas ordenadas por expiração: despejo e limpeza sem percorrer o shard inteiro
+        private final NavigableSet<Entry> byExpiry = new TreeSet<>(Entry.BY_EXPIRY);
+        private final Map<AuthorizationToken, Map<String, String>> index = new EnumMap<>(AuthorizationToken.class);
+
+        private Shard() {
+            for (AuthorizationToken kind : AuthorizationToken.values()) {
+                index.put(kind, new HashMap<>());
+            }
+        }
+
+        // Os métodos abaixo são chamados com o lock (de registros) do shard adquirido
+
+        private Entry put(Entry entry) {
+            Entry previous = authorizations.put(entry.authorization().getId(), entry);
+            if (previous != null) {
+                byExpiry.remove(previous);
+            }
+            byExpiry.add(entry);
+            return previous;
+        }
+
+        private Entry remove(String id) {
+            Entry removed = authorizations.remove(id);
+            if (removed != null) {
+                byExpiry.remove(removed);
+            }
+            return removed;
+        }
+
+        private Entry evictSoonestExpiring(String keepId) {
+            for (Entry entry : byExpiry) {
+                if (!entry.authorization().getId().equals(keepId)) {
+                    return remove(entry.authorization().getId());
+                }
+            }
+            throw new IllegalStateException("No entry to evict");
+        }
+
+        private List<Entry> removeExpired(Instant now) {
+            List<Entry> expired = new ArrayList<>();
+            while (!byExpiry.isEmpty() && !byExpiry.first().expiresAt().isAfter(now)) {
+                Entry entry = byExpiry.pollFirst();
+                authorizations.remove(entry.authorization().getId());
+                expired.add(entry);
+            }
+            return expired;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.example.oauth2.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2AuthorizationCodeRequestAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.jackson2.OAuth2AuthorizationServerJackson2Module;
+import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenContext;
+import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenGenerator;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.Principal;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Authorization codes sem estado no servidor: o code é o próprio estado da autorização (cliente, usuário,
+ * scopes e a requisição original, com {@code redirect_uri} e PKCE), cifrado com AES-GCM. Qualquer nó com a
+ * mesma chave resgata o code em {@code /oauth2/token} sem gravar o armazenamento de autorizações antes da
+ * emissão dos tokens.
+ * <p>
+ * Decora o {@link OAuth2AuthorizationService} do authorization server:
+ * <ul>
+ *     <li>a autorização com o code recém-emitido não é gravada (e a pendente de consentimento, se houver,
+ *     é removida);</li>
+ *     <li>{@code findByToken} com o tipo {@code code} decifra o code e remonta a autorização, a menos que o code
+ *     já tenha sido usado: no conjunto local ou com uma autorização gravada no delegate sob o id do code;</li>
+ *     <li>o uso único é garantido no {@code save} que invalida o code após a emissão dos tokens: o id do code
+ *     entra em um conjunto de codes já usados, em memória e com expiração igual à do code. Um segundo resgate
+ *     é recusado com {@code invalid_grant}; depois do primeiro, a autorização com os tokens emitidos segue para
+ *     o delegate normalmente (refresh token, revogação).</li>
+ * </ul>
+ * Com um armazenamento compartilhado ({@code jdbc}) o uso único vale entre nós: a autorização gravada no resgate
+ * fica visível pelo id do code. O conjunto local cobre resgates concorrentes no mesmo nó; dois resgates
+ * simultâneos em nós diferentes, antes da gravação do primeiro, ainda podem passar.
+ */
+public class StatelessAuthorizationCodeService implements OAuth2AuthorizationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatelessAuthorizationCodeService.class);
+    private static final byte VERSION = 1;
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+    private static final int MINIMUM_LENGTH = 1 + IV_LENGTH + TAG_BITS / 8;
+    private static final OAuth2TokenType AUTHORIZATION_CODE = new OAuth2TokenType(OAuth2ParameterNames.CODE);
+    // false na autorização remontada do code; true depois do resgate, nas gravações seguintes da mesma autorização
+    private static final String REDEEMED_METADATA_NAME = StatelessAuthorizationCodeService.class.getName() + ".redeemed";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final OAuth2AuthorizationService delegate;
+    private final RegisteredClientRepository registeredClientRepository;
+    private final SecretKey key;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Cache<String, Instant> redeemedCodes;
+
+    public StatelessAuthorizationCodeService(OAuth2AuthorizationService delegate,
+                                             RegisteredClientRepository registeredClientRepository, SecretKey key) {
+        Assert.notNull(delegate, "delegate cannot be null");
+        Assert.notNull(registeredClientRepository, "registeredClientRepository cannot be null");
+        Assert.isTrue(key != null && key.getEncoded().length == 32, "key must be a 256-bit AES key");
+        this.delegate = delegate;
+        this.registeredClientRepository = registeredClientRepository;
+        this.key = key;
+
+        ClassLoader classLoader = StatelessAuthorizationCodeService.class.getClassLoader();
+        this.objectMapper.registerModules(SecurityJackson2Modules.getModules(classLoader));
+        this.objectMapper.registerModule(new OAuth2AuthorizationServerJackson2Module());
+
+        this.redeemedCodes = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, Instant>() {
+                    @Override
+                    public long expireAfterCreate(String codeId, Instant expiresAt, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String codeId, Instant expiresAt, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String codeId, Instant expiresAt, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Chave AES-256 em base64; vazia gera uma chave aleatória, e então só este nó resgata os codes que emitiu.
+     */
+    public static SecretKey key(String encoded) {
+        byte[] key;
+        if (StringUtils.hasText(encoded)) {
+            key = Base64.getDecoder().decode(encoded.trim());
+        }
+        else {
+            logger.warn("No authorization code key configured, using a random key: codes can only be redeemed on this node");
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        }
+        return new SecretKeySpec(key, "AES");
+    }
+
+    /**
+     * Gerador para os providers de {@code /oauth2/authorize} (requisição e consentimento).
+     */
+    public OAuth2TokenGenerator<OAuth2AuthorizationCode> authorizationCodeGenerator() {
+        return this::generate;
+    }
+
+    public Cache<String, Instant> getRedeemedCodes() {
+        return redeemedCodes;
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        OAuth2Authorization.Token<OAuth2AuthorizationCode> code = authorization.getToken(OAuth2AuthorizationCode.class);
+        Object redeemed = code != null ? code.getMetadata(REDEEMED_METADATA_NAME) : null;
+        if (code != null && redeemed == null && code.isActive() && authorization.getAccessToken() == null) {
+            // Code recém-emitido: o estado está no próprio code. No fluxo com consentimento a autorização
+            // pendente (gravada com o state) não é mais necessária
+            OAuth2Authorization pending = delegate.findById(authorization.getId());
+            if (pending != null) {
+                delegate.remove(pending);
+            }
+            return;
+        }
+        if (Boolean.FALSE.equals(redeemed)) {
+            // Primeiro save depois do resgate (tokens emitidos, ou code invalidado por erro do cliente)
+            if (redeemedCodes.asMap().putIfAbsent(authorization.getId(), code.getToken().getExpiresAt()) != null) {
+                throw new OAuth2AuthenticationException(new OAuth2Error(OAuth2ErrorCodes.INVALID_GRANT));
+            }
+            if (authorization.getAccessToken() == null) {
+                return;
+            }
+            authorization = OAuth2Authorization.from(authorization)
+                    .token(code.getToken(), metadata -> metadata.put(REDEEMED_METADATA_NAME, true))
+                    .build();
+        }
+        delegate.save(authorization);
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        delegate.remove(authorization);
+    }
+
+    @Nullable
+    @Override
+    public OAuth2Authorization findById(String id) {
+        return delegate.findById(id);
+    }
+
+    @Nullable
+    @Override
+    public OAuth2Authorization findByToken(String token, @Nullable OAuth2TokenType tokenType) {
+        if (!AUTHORIZATION_CODE.equals(tokenType)) {
+            return delegate.findByToken(token, tokenType);
+        }
+        byte[] sealed = decode(token);
+        if (sealed == null) {
+            return delegate.findByToken(token, tokenType);
+        }
+        String codeId = ENCODER.encodeToString(Arrays.copyOfRange(sealed, 1, 1 + IV_LENGTH));
+        if (redeemedCodes.getIfPresent(codeId) != null || delegate.findById(codeId) != null) {
+            // Reuso, neste ou em outro nó: a autorização gravada no resgate permite ao provider revogar os tokens emitidos
+            return delegate.findByToken(token, tokenType);
+        }
+        Map<String, Object> state = open(sealed);
+        return state != null ? toAuthorization(codeId, token, state) : null;
+    }
+
+    private OAuth2AuthorizationCode generate(OAuth2TokenContext context) {
+        if (context.getTokenType() == null || !OAuth2ParameterNames.CODE.equals(context.getTokenType().getValue())) {
+            return null;
+        }
+        RegisteredClient registeredClient = context.getRegisteredClient();
+        OAuth2Authorization pending = context.getAuthorization();
+        Authentication principal;
+        OAuth2AuthorizationRequest authorizationRequest;
+        if (pending != null) {
+            // Consentimento: a requisição original ficou na autorização pendente
+            principal = pending.getAttribute(Principal.class.getName());
+            authorizationRequest = pending.getAttribute(OAuth2AuthorizationRequest.class.getName());
+        }
+        else {
+            // Mesma requisição que o provider grava na autorização
+            OAuth2AuthorizationCodeRequestAuthenticationToken request = context.getAuthorizationGrant();
+            principal = context.getPrincipal();
+            authorizationRequest = OAuth2AuthorizationRequest.authorizationCode()
+                    .authorizationUri(request.getAuthorizationUri())
+                    .clientId(registeredClient.getClientId())
+                    .redirectUri(request.getRedirectUri())
+                    .scopes(request.getScopes())
+                    .state(request.getState())
+                    .additionalParameters(request.getAdditionalParameters())
+                    .build();
+        }
+        Instant issuedAt = Instant.now();
+        Instant expiresAt = issuedAt.plus(registeredClient.getTokenSettings().getAuthorizationCodeTimeToLive());
+
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put(Principal.class.getName(), principal);
+        attributes.put(OAuth2AuthorizationRequest.class.getName(), authorizationRequest);
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("client", registeredClient.getId());
+        state.put("principal_name", principal.getName());
+        state.put("scopes", String.join(" ", context.getAuthorizedScopes()));
+        // Strings: o allowlist de tipos dos módulos do Spring Security não inclui Long
+        state.put("iat", Long.toString(issuedAt.getEpochSecond()));
+        state.put("exp", Long.toString(expiresAt.getEpochSecond()));
+        state.put("attributes", attributes);
+        return new OAuth2AuthorizationCode(seal(state), issuedAt, expiresAt);
+    }
+
+    private OAuth2Authorization toAuthorization(String codeId, String token, Map<String, Object> state) {
+        RegisteredClient registeredClient = registeredClientRepository.findById((String) state.get("client"));
+        if (registeredClient == null) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> attributes = (Map<String, Object>) state.get("attributes");
+        OAuth2AuthorizationCode code = new OAuth2AuthorizationCode(token,
+                Instant.ofEpochSecond(Long.parseLong((String) state.get("iat"))),
+                Instant.ofEpochSecond(Long.parseLong((String) state.get("exp"))));
+        return OAuth2Authorization.withRegisteredClient(registeredClient)
+                .id(codeId)
+                .principalName((String) state.get("principal_name"))
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .authorizedScopes(Set.of(StringUtils.delimitedListToStringArray((String) state.get("scopes"), " ")))
+                .attributes(values -> values.putAll(attributes))
+                .token(code, metadata -> metadata.put(REDEEMED_METADATA_NAME, false))
+                .build();
+    }
+
+    // versão (1 byte) | IV (12 bytes) | JSON cifrado + tag GCM, em base64url
+    private String seal(Map<String, Object> state) {
+        byte[] iv = new byte[IV_LENGTH];
+        secureRandom.nextBytes(iv);
+        try {
+            Cipher cipher = cipher(Cipher.ENCRYPT_MODE, iv);
+            byte[] ciphertext = cipher.doFinal(objectMapper.writeValueAsBytes(state));
+            return ENCODER.encodeToString(ByteBuffer.allocate(1 + IV_LENGTH + ciphertext.length)
+                    .put(VERSION).put(iv).put(ciphertext).array());
+        }
+        catch (GeneralSecurityException | IOException ex) {
+            throw new IllegalStateException("Unable to seal authorization code", ex);
+        }
+    }
+
+    @Nullable
+    private Map<String, Object> open(byte[] sealed) {
+        try {
+            Cipher cipher = cipher(Cipher.DECRYPT_MODE, Arrays.copyOfRange(sealed, 1, 1 + IV_LENGTH));
+            byte[] json = cipher.doFinal(sealed, 1 + IV_LENGTH, sealed.length - 1 - IV_LENGTH);
+            return objectMapper.readValue(json, new TypeReference<>() {});
+        }
+        catch (AEADBadTagException ex) {
+            // Code adulterado ou cifrado com outra chave
+            return null;
+        }
+        catch (GeneralSecurityException | IOException ex) {
+            throw new IllegalStateException("Unable to open authorization code", ex);
+        }
+    }
+
+    private Cipher cipher(int mode, byte[] iv) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(mode, key, new GCMParameterSpec(TAG_BITS, iv));
+        cipher.updateAAD(new byte[] {VERSION});
+        return cipher;
+    }
+
+    @Nullable
+    private static byte[] decode(String token) {
+        try {
+            byte[] sealed = DECODER.decode(token);
+            return sealed.length >= MINIMUM_LENGTH && sealed[0] == VERSION ? sealed : null;
+        }
+        catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.oauth2.service;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Publicado quando um {@link com.example.oauth2.entity.User} é criado, alterado ou removido.
+ */
+public class UserChangedEvent extends ApplicationEvent {
+
+    private final Long userId;
+    private final String username;
+
+    public UserChangedEvent(Object source, Long userId, String username) {
+        super(source);
+        this.userId = userId;
+        this.username = username;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * Username depois da alteração.
+     */
+    public String getUsername() {
+        return username;
+    }
+}
@@ -0,0 +1,56 @@
+-- Autorizações OAuth2 (JdbcHashedOAuth2AuthorizationService).
+-- Os valores dos tokens nunca são consultados diretamente: cada busca usa a coluna *_hash
+-- (SHA-256 em Base64 URL, 43 caracteres), que cabe em um índice B-tree comum.
+-- Em PostgreSQL, troque as colunas clob por text.
+CREATE TABLE IF NOT EXISTS oauth2_authorizations (
+    id varchar(100) NOT NULL,
+    registered_client_id varchar(100) NOT NULL,
+    principal_name varchar(200) NOT NULL,
+    authorization_grant_type varchar(100) NOT NULL,
+    authorized_scopes varchar(1000) DEFAULT NULL,
+    attributes clob DEFAULT NULL,
+    state_hash char(43) DEFAULT NULL,
+    authorization_code_value clob DEFAULT NULL,
+    authorization_code_hash char(43) DEFAULT NULL,
+    authorization_code_issued_at timestamp DEFAULT NULL,
+    authorization_code_expires_at timestamp DEFAULT NULL,
+    authorization_code_metadata clob DEFAULT NULL,
+    access_token_value clob DEFAULT NULL,
+    access_token_hash char(43) DEFAULT NULL,
+    access_token_issued_at timestamp DEFAULT NULL,
+    access_token_expires_at timestamp DEFAULT NULL,
+    access_token_metadata clob DEFAULT NULL,
+    access_token_type varchar(100) DEFAULT NULL,
+    access_token_scopes varchar(1000) DEFAULT NULL,
+    oidc_id_token_value clob DEFAULT NULL,
+    oidc_id_token_hash char(43) DEFAULT NULL,
+    oidc_id_token_issued_at timestamp DEFAULT NULL,
+    oidc_id_token_expires_at timestamp DEFAULT NULL,
+    oidc_id_token_metadata clob DEFAULT NULL,
+    refresh_token_value clob DEFAULT NULL,
+    refresh_token_hash char(43) DEFAULT NULL,
+    refresh_token_issued_at timestamp DEFAULT NULL,
+    refresh_token_expires_at timestamp DEFAULT NULL,
+    refresh_token_metadata clob DEFAULT NULL,
+    user_code_value clob DEFAULT NULL,
+    user_code_hash char(43) DEFAULT NULL,
+    user_code_issued_at timestamp DEFAULT NULL,
+    user_code_expires_at timestamp DEFAULT NULL,
+    user_code_metadata clob DEFAULT NULL,
+    device_code_value clob DEFAULT NULL,
+    device_code_hash char(43) DEFAULT NULL,
+    device_code_issued_at timestamp DEFAULT NULL,
+    device_code_expires_at timestamp DEFAULT NULL,
+    device_code_metadata clob DEFAULT NULL,
+    expires_at timestamp NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS ix_oauth2_authorizations_state ON oauth2_authorizations (state_hash);
+CREATE INDEX IF NOT EXISTS ix_oauth2_authorizations_code ON oauth2_authorizations (authorization_code_hash);
+CREATE INDEX IF NOT EXISTS ix_oauth2_authorizations_access_token ON oauth2_authorizations (access_token_hash);
+CREATE INDEX IF NOT EXISTS ix_oauth2_authorizations_id_token ON oauth2_authorizations (oidc_id_token_hash);
+CREATE INDEX IF NOT EXISTS ix_oauth2_authorizations_refresh_token ON oauth2_authorizations (refresh_token_hash);
+CREATE INDEX IF NOT EXISTS ix_oauth2_authorizations_user_code ON oauth2_authorizations (user_code_hash);
+CREATE INDEX IF NOT EXISTS ix_oauth2_authorizations_device_code ON oauth2_authorizations (device_code_hash);
+CREATE INDEX IF NOT EXISTS ix_oauth2_authorizations_expires_at ON oauth2_authorizations (expires_at);